@@ -38,6 +38,7 @@ dependencies {
 	implementation("org.flywaydb:flyway-database-postgresql")
 	implementation("io.jsonwebtoken:jjwt-api:0.11.5")
 	implementation("com.fasterxml.jackson.datatype:jackson-datatype-hibernate6")
+	implementation("com.fasterxml.jackson.dataformat:jackson-dataformat-cbor")
 	implementation("tools.jackson.core:jackson-databind:3.0.0")
 	runtimeOnly("io.jsonwebtoken:jjwt-impl:0.11.5")
 	runtimeOnly("io.jsonwebtoken:jjwt-jackson:0.11.5")
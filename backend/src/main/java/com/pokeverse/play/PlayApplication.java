@@ -2,8 +2,10 @@ package com.pokeverse.play;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class PlayApplication {
 	public static void main(String[] args) {
 		SpringApplication.run(PlayApplication.class, args);
@@ -15,7 +15,8 @@ import java.time.Instant;
 @Getter
 public class MultiplayerAttempt {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "multiplayer_attempts_seq")
+    @SequenceGenerator(name = "multiplayer_attempts_seq", sequenceName = "multiplayer_attempts_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
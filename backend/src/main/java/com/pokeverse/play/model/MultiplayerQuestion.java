@@ -14,7 +14,8 @@ import java.time.Instant;
 @Getter
 public class MultiplayerQuestion {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "multiplayer_questions_seq")
+    @SequenceGenerator(name = "multiplayer_questions_seq", sequenceName = "multiplayer_questions_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -1,7 +1,10 @@
 package com.pokeverse.play.model;
 
+import com.pokeverse.play.quiz.utils.QuestionTextUtil;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 
 import java.time.Instant;
 import java.time.LocalDateTime;
@@ -9,7 +12,10 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "questions")
+@Table(name = "questions", indexes = {
+        @Index(name = "idx_questions_updated_at", columnList = "updated_at"),
+        @Index(name = "uk_questions_question_hash", columnList = "question_hash", unique = true)
+})
 @Getter @Setter
 @AllArgsConstructor @NoArgsConstructor
 @Builder
@@ -21,19 +27,33 @@ public class Question {
     @Column(unique = true, nullable = false)
     private String question;
 
+    // QuestionTextUtil.hash of the text: questions differing only in case or spacing are duplicates
+    @Column(name = "question_hash")
+    private Long questionHash;
+
     private String answer;
     private String difficulty;
     private String topic;
 
+    // Stored inline as a text[] so a question is always a single row fetch
     @Builder.Default
-    @ElementCollection
-    @CollectionTable(name = "question_options", joinColumns = @JoinColumn(name = "question_id"))
-    @Column(name = "option_value")
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    @Column(name = "options", columnDefinition = "text[]")
     private List<String> options = new ArrayList<>();
 
     private Instant createdAt;
+    private Instant updatedAt;
+
     @PrePersist
     public void prePersist() {
         this.createdAt = Instant.now();
+        this.updatedAt = this.createdAt;
+        this.questionHash = QuestionTextUtil.hash(question);
+    }
+
+    @PreUpdate
+    public void preUpdate() {
+        this.updatedAt = Instant.now();
+        this.questionHash = QuestionTextUtil.hash(question);
     }
 }
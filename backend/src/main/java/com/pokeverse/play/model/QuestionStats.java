@@ -0,0 +1,34 @@
+package com.pokeverse.play.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+// Rolled up by QuestionStatsAggregator; never written per answer
+@Entity
+@Table(name = "question_stats", indexes = @Index(name = "idx_question_stats_topic", columnList = "topic"))
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class QuestionStats {
+    @Id
+    private Long questionId;
+    private String topic;
+
+    private long attempts;
+    private long correct;
+    private long answerTimeSumMs;
+
+    // Answer-time histogram
+    private long answersUnder2s;
+    private long answersUnder5s;
+    private long answersUnder10s;
+    private long answersUnder20s;
+    private long answersUnder30s;
+    private long answersOver30s;
+
+    private Instant updatedAt;
+}
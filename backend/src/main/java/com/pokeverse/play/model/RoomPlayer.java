@@ -28,6 +28,22 @@ public class RoomPlayer {
     @Builder.Default
     private int score = 0;
 
+    // Running totals, kept by the game and written with each answer batch
+    @Builder.Default
+    private int currentStreak = 0;
+
+    @Builder.Default
+    private int longestStreak = 0;
+
+    @Builder.Default
+    private int correctAnswers = 0;
+
+    @Builder.Default
+    private int answers = 0;
+
+    @Builder.Default
+    private long answerTimeSumMs = 0;
+
     @OneToMany(mappedBy = "player", cascade = CascadeType.ALL, orphanRemoval = true)
     @Builder.Default
     private List<MultiplayerAttempt> attempts = new ArrayList<>();
@@ -38,18 +54,4 @@ public class RoomPlayer {
         attempts.add(attempt);
         attempt.setPlayer(this);
     }
-
-    public int getLongestStreak() {
-        int res = 0;
-        int currentStreak = 0;
-        for (MultiplayerAttempt attempt : attempts) {
-            if (attempt.isCorrect()) {
-                currentStreak++;
-                res = Math.max(res, currentStreak);
-            } else {
-                currentStreak = 0;
-            }
-        }
-        return res;
-    }
 }
\ No newline at end of file
@@ -0,0 +1,25 @@
+package com.pokeverse.play.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+// Written once when a game ends and never updated
+@Entity
+@Table(name = "room_results")
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class RoomResult {
+    @Id
+    private Long roomId;
+
+    // Serialized List<ResultDto>, served as is
+    @Column(columnDefinition = "text", nullable = false)
+    private String results;
+
+    private Instant completedAt;
+}
@@ -0,0 +1,213 @@
+package com.pokeverse.play.quiz.config;
+
+import com.pokeverse.play.quiz.service.RoomOwnershipService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeType;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Carries room and player messages between the simple brokers of all nodes.
+ * <p>
+ * Sits on the broker channel: every message the application sends to
+ * {@code /topic/room/<id>/...} or {@code /topic/player/<id>/...} goes to the
+ * local broker as before and is published once, already serialized, on
+ * {@code quiz:ws:room:<id>} or {@code quiz:ws:player:<id>}. Other nodes hand
+ * it to their own broker, marked so it is not published again.
+ * <p>
+ * A node only listens to the channels its own STOMP sessions are subscribed
+ * to: the first local subscription to a room subscribes the channel, the
+ * last unsubscribe or disconnect drops it.
+ */
+@Slf4j
+@Component
+public class BrokerBridge implements ChannelInterceptor {
+
+    static final String BRIDGED_HEADER = "bridgedFrom";
+
+    private static final String ROOM_PREFIX = "/topic/room/";
+    private static final String PLAYER_PREFIX = "/topic/player/";
+
+    private final String nodeId;
+    private final BrokerBridgeTransport transport;
+    private final Consumer<Message<byte[]>> localDelivery;
+
+    // Guarded by this; subscription churn is low next to message traffic
+    private final Map<String, Map<String, String>> sessions = new HashMap<>();
+    private final Map<String, Listened> listened = new HashMap<>();
+
+    private static final class Listened {
+        int subscribers;
+        BrokerBridgeTransport.Subscription subscription;
+    }
+
+    @Autowired
+    public BrokerBridge(BrokerBridgeTransport transport,
+                        RoomOwnershipService roomOwnershipService,
+                        ObjectProvider<SimpMessagingTemplate> messagingTemplate) {
+        this(roomOwnershipService.nodeId(), transport, message -> messagingTemplate.getObject().send(
+                SimpMessageHeaderAccessor.getDestination(message.getHeaders()), message));
+    }
+
+    BrokerBridge(String nodeId, BrokerBridgeTransport transport, Consumer<Message<byte[]>> localDelivery) {
+        this.nodeId = nodeId;
+        this.transport = transport;
+        this.localDelivery = localDelivery;
+    }
+
+    /* ---------------- OUTBOUND ---------------- */
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        if (message.getHeaders().containsKey(BRIDGED_HEADER)) return message;
+        if (SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) != SimpMessageType.MESSAGE) return message;
+
+        String destination = SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+        String bridgeChannel = channelFor(destination);
+        if (bridgeChannel == null) return message;
+
+        byte[] payload = switch (message.getPayload()) {
+            case byte[] bytes -> bytes;
+            case String text -> text.getBytes(StandardCharsets.UTF_8);
+            default -> null;
+        };
+        if (payload == null) {
+            log.warn("Not bridging unconverted {} payload to {}", message.getPayload().getClass().getSimpleName(), destination);
+            return message;
+        }
+
+        Object contentType = message.getHeaders().get(MessageHeaders.CONTENT_TYPE); // MimeType or String
+        try {
+            transport.publish(bridgeChannel, encode(destination, contentType, payload));
+        } catch (Exception e) {
+            // Local subscribers still get it; remote ones miss this message
+            log.error("Failed to bridge message to {}: {}", destination, e.getMessage());
+        }
+        return message;
+    }
+
+    /* ---------------- INBOUND ---------------- */
+
+    void receive(byte[] envelope) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(envelope))) {
+            String origin = in.readUTF();
+            if (nodeId.equals(origin)) return;
+            String destination = in.readUTF();
+            String contentType = in.readUTF();
+            byte[] payload = in.readAllBytes();
+
+            SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+            accessor.setDestination(destination);
+            if (!contentType.isEmpty()) accessor.setContentType(MimeType.valueOf(contentType));
+            accessor.setHeader(BRIDGED_HEADER, origin);
+            accessor.setLeaveMutable(true);
+            localDelivery.accept(MessageBuilder.createMessage(payload, accessor.getMessageHeaders()));
+        } catch (Exception e) {
+            log.error("Dropping malformed bridged message: {}", e.getMessage());
+        }
+    }
+
+    private byte[] encode(String destination, Object contentType, byte[] payload) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(payload.length + destination.length() + 64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeUTF(nodeId);
+            out.writeUTF(destination);
+            out.writeUTF(contentType == null ? "" : contentType.toString());
+            out.write(payload);
+        }
+        return bytes.toByteArray();
+    }
+
+    /* ---------------- SUBSCRIPTIONS ---------------- */
+
+    @EventListener
+    public void onSubscribe(SessionSubscribeEvent event) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(event.getMessage());
+        subscribed(accessor.getSessionId(), accessor.getSubscriptionId(), accessor.getDestination());
+    }
+
+    @EventListener
+    public void onUnsubscribe(SessionUnsubscribeEvent event) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(event.getMessage());
+        unsubscribed(accessor.getSessionId(), accessor.getSubscriptionId());
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        disconnected(event.getSessionId());
+    }
+
+    synchronized void subscribed(String sessionId, String subscriptionId, String destination) {
+        String bridgeChannel = channelFor(destination);
+        if (sessionId == null || subscriptionId == null || bridgeChannel == null) return;
+
+        String previous = sessions.computeIfAbsent(sessionId, s -> new HashMap<>()).put(subscriptionId, bridgeChannel);
+        if (previous != null) release(previous);
+
+        Listened l = listened.computeIfAbsent(bridgeChannel, c -> new Listened());
+        if (l.subscribers++ == 0) {
+            l.subscription = transport.subscribe(bridgeChannel, this::receive);
+            log.debug("Node {} now listens to {}", nodeId, bridgeChannel);
+        }
+    }
+
+    synchronized void unsubscribed(String sessionId, String subscriptionId) {
+        Map<String, String> subscriptions = sessions.get(sessionId);
+        if (subscriptions == null) return;
+        String bridgeChannel = subscriptions.remove(subscriptionId);
+        if (subscriptions.isEmpty()) sessions.remove(sessionId);
+        if (bridgeChannel != null) release(bridgeChannel);
+    }
+
+    synchronized void disconnected(String sessionId) {
+        Map<String, String> subscriptions = sessions.remove(sessionId);
+        if (subscriptions != null) subscriptions.values().forEach(this::release);
+    }
+
+    synchronized boolean listensTo(String bridgeChannel) {
+        return listened.containsKey(bridgeChannel);
+    }
+
+    private void release(String bridgeChannel) {
+        Listened l = listened.get(bridgeChannel);
+        if (l == null || --l.subscribers > 0) return;
+        listened.remove(bridgeChannel);
+        l.subscription.cancel();
+        log.debug("Node {} stopped listening to {}", nodeId, bridgeChannel);
+    }
+
+    /* ---------------- CHANNELS ---------------- */
+
+    // /topic/room/42/question -> quiz:ws:room:42, /topic/player/7/error -> quiz:ws:player:7
+    static String channelFor(String destination) {
+        if (destination == null) return null;
+        if (destination.startsWith(ROOM_PREFIX)) return channel("room", destination, ROOM_PREFIX.length());
+        if (destination.startsWith(PLAYER_PREFIX)) return channel("player", destination, PLAYER_PREFIX.length());
+        return null;
+    }
+
+    private static String channel(String kind, String destination, int from) {
+        int end = destination.indexOf('/', from);
+        String id = end < 0 ? destination.substring(from) : destination.substring(from, end);
+        return id.isEmpty() ? null : "quiz:ws:" + kind + ":" + id;
+    }
+}
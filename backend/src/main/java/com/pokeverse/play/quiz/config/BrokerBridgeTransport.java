@@ -0,0 +1,19 @@
+package com.pokeverse.play.quiz.config;
+
+import java.util.function.Consumer;
+
+/**
+ * Pub/sub between backend nodes used by {@link BrokerBridge}: Redis in
+ * production, an in-process hub for a single node and for tests.
+ */
+public interface BrokerBridgeTransport {
+
+    void publish(String channel, byte[] message);
+
+    /** Handlers of one channel run one message at a time, in publish order. */
+    Subscription subscribe(String channel, Consumer<byte[]> handler);
+
+    interface Subscription {
+        void cancel();
+    }
+}
@@ -0,0 +1,171 @@
+package com.pokeverse.play.quiz.config;
+
+import com.pokeverse.play.quiz.utils.EncodedFrame;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-session choice between JSON (the default) and CBOR frame bodies.
+ * <p>
+ * A client connected to the plain WebSocket endpoint {@code /ws/raw} asks
+ * for CBOR with a {@code frame-encoding: cbor} header on CONNECT. SockJS
+ * sessions cannot carry binary frames and always get JSON. Each JSON frame
+ * on the broker channel gets an {@link EncodedFrame}; on the way out, CBOR
+ * sessions receive its CBOR bytes, transcoded once per frame when the first
+ * CBOR subscriber gets it (never, if no session asked for CBOR), with content
+ * type {@code application/octet-stream} so STOMP sends them as a binary
+ * WebSocket message. Clients pick the decoder from each frame's content type.
+ * <p>
+ * Metrics: {@code quiz.ws.frame.bytes} (tag {@code encoding}: json, cbor),
+ * body size of each delivered frame; {@code quiz.ws.frame.encode}, time
+ * spent transcoding frames to CBOR.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FrameEncoding {
+
+    static final String ENCODING_HEADER = "frame-encoding";
+    static final String CBOR = "cbor";
+    static final String BINARY_CAPABLE = "binaryFrames";
+
+    private final MeterRegistry meterRegistry;
+
+    private final Set<String> cborSessions = ConcurrentHashMap.newKeySet();
+
+    private DistributionSummary jsonBytes;
+    private DistributionSummary cborBytes;
+    private Timer transcode;
+
+    @PostConstruct
+    public void init() {
+        jsonBytes = DistributionSummary.builder("quiz.ws.frame.bytes").tag("encoding", "json")
+                .baseUnit("bytes").register(meterRegistry);
+        cborBytes = DistributionSummary.builder("quiz.ws.frame.bytes").tag("encoding", CBOR)
+                .baseUnit("bytes").register(meterRegistry);
+        transcode = Timer.builder("quiz.ws.frame.encode").tag("encoding", CBOR)
+                .description("Time spent transcoding JSON frames to CBOR")
+                .register(meterRegistry);
+    }
+
+    /* ---------------- HANDSHAKE ---------------- */
+
+    /** Marks sessions of the plain WebSocket endpoint, the only ones that can receive binary frames. */
+    public HandshakeInterceptor binaryCapable() {
+        return new HandshakeInterceptor() {
+            @Override
+            public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                                           WebSocketHandler wsHandler, Map<String, Object> attributes) {
+                attributes.put(BINARY_CAPABLE, Boolean.TRUE);
+                return true;
+            }
+
+            @Override
+            public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                                       WebSocketHandler wsHandler, Exception exception) {
+            }
+        };
+    }
+
+    /* ---------------- CLIENT INBOUND ---------------- */
+
+    public ChannelInterceptor inbound() {
+        return new ChannelInterceptor() {
+            @Override
+            public Message<?> preSend(Message<?> message, MessageChannel channel) {
+                SimpMessageType type = SimpMessageHeaderAccessor.getMessageType(message.getHeaders());
+                if (type == SimpMessageType.CONNECT) {
+                    negotiate(StompHeaderAccessor.wrap(message));
+                } else if (type == SimpMessageType.DISCONNECT) {
+                    String sessionId = SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+                    if (sessionId != null) cborSessions.remove(sessionId);
+                }
+                return message;
+            }
+        };
+    }
+
+    private void negotiate(StompHeaderAccessor accessor) {
+        if (!CBOR.equalsIgnoreCase(accessor.getFirstNativeHeader(ENCODING_HEADER))) return;
+        Map<String, Object> attributes = accessor.getSessionAttributes();
+        if (attributes == null || !Boolean.TRUE.equals(attributes.get(BINARY_CAPABLE))) {
+            log.debug("Session {} asked for CBOR over SockJS, keeping JSON", accessor.getSessionId());
+            return;
+        }
+        cborSessions.add(accessor.getSessionId());
+    }
+
+    /* ---------------- BROKER ---------------- */
+
+    /** Attaches an {@link EncodedFrame} to JSON messages that do not carry one yet. */
+    public ChannelInterceptor broker() {
+        return new ChannelInterceptor() {
+            @Override
+            public Message<?> preSend(Message<?> message, MessageChannel channel) {
+                if (message.getHeaders().containsKey(EncodedFrame.HEADER)) return message;
+                if (!(message.getPayload() instanceof byte[] json) || !isJson(message)) return message;
+
+                SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(message);
+                accessor.setHeader(EncodedFrame.HEADER, new EncodedFrame(json));
+                return MessageBuilder.createMessage(json, accessor.getMessageHeaders());
+            }
+        };
+    }
+
+    /* ---------------- CLIENT OUTBOUND ---------------- */
+
+    public ChannelInterceptor outbound() {
+        return new ChannelInterceptor() {
+            @Override
+            public Message<?> preSend(Message<?> message, MessageChannel channel) {
+                if (!(message.getHeaders().get(EncodedFrame.HEADER) instanceof EncodedFrame frame)) return message;
+
+                String sessionId = SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+                if (sessionId == null || !cborSessions.contains(sessionId)) {
+                    jsonBytes.record(frame.json().length);
+                    return message;
+                }
+
+                byte[] cbor = frame.hasCbor() ? frame.cbor() : transcode.record(frame::cbor);
+                cborBytes.record(cbor.length);
+
+                SimpMessageHeaderAccessor accessor =
+                        MessageHeaderAccessor.getAccessor(message, SimpMessageHeaderAccessor.class);
+                if (accessor == null || !accessor.isMutable()) accessor = SimpMessageHeaderAccessor.wrap(message);
+                accessor.setContentType(MimeTypeUtils.APPLICATION_OCTET_STREAM);
+                return MessageBuilder.createMessage(cbor, accessor.getMessageHeaders());
+            }
+        };
+    }
+
+    private static boolean isJson(Message<?> message) {
+        Object contentType = message.getHeaders().get(MessageHeaders.CONTENT_TYPE); // MimeType or String
+        if (contentType == null) return false;
+        MimeType mimeType = contentType instanceof MimeType m ? m : MimeType.valueOf(contentType.toString());
+        return MimeTypeUtils.APPLICATION_JSON.isCompatibleWith(mimeType);
+    }
+}
@@ -0,0 +1,61 @@
+package com.pokeverse.play.quiz.config;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * In-process stand-in for Redis pub/sub. Every bridge sharing an instance
+ * behaves like a separate node; delivery happens on one dispatcher thread,
+ * like the Redis listener container, so the publisher never runs handlers.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.broker-bridge.transport", havingValue = "local")
+public class LocalBrokerBridgeTransport implements BrokerBridgeTransport {
+
+    private final Map<String, List<Consumer<byte[]>>> channels = new ConcurrentHashMap<>();
+    private final ExecutorService dispatcher = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "broker-bridge-local");
+        t.setDaemon(true);
+        return t;
+    });
+
+    @Override
+    public void publish(String channel, byte[] message) {
+        List<Consumer<byte[]>> handlers = channels.get(channel);
+        if (handlers == null || handlers.isEmpty()) return;
+        dispatcher.execute(() -> {
+            for (Consumer<byte[]> handler : handlers) {
+                try {
+                    handler.accept(message);
+                } catch (Exception e) {
+                    log.error("Bridge handler on {} failed: {}", channel, e.getMessage());
+                }
+            }
+        });
+    }
+
+    @Override
+    public Subscription subscribe(String channel, Consumer<byte[]> handler) {
+        channels.computeIfAbsent(channel, c -> new CopyOnWriteArrayList<>()).add(handler);
+        return () -> channels.computeIfPresent(channel, (c, handlers) -> {
+            handlers.remove(handler);
+            return handlers.isEmpty() ? null : handlers;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdown();
+    }
+}
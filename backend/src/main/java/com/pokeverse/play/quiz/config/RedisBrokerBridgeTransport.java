@@ -0,0 +1,37 @@
+package com.pokeverse.play.quiz.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+/** Redis pub/sub; subscriptions share the node's single listener connection. */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.broker-bridge.transport", havingValue = "redis", matchIfMissing = true)
+public class RedisBrokerBridgeTransport implements BrokerBridgeTransport {
+
+    private final StringRedisTemplate redis;
+    private final RedisMessageListenerContainer listenerContainer;
+
+    @Override
+    public void publish(String channel, byte[] message) {
+        byte[] name = channel.getBytes(StandardCharsets.UTF_8);
+        redis.execute((RedisCallback<Long>) connection -> connection.publish(name, message));
+    }
+
+    @Override
+    public Subscription subscribe(String channel, Consumer<byte[]> handler) {
+        ChannelTopic topic = new ChannelTopic(channel);
+        MessageListener listener = (message, pattern) -> handler.accept(message.getBody());
+        listenerContainer.addMessageListener(listener, topic);
+        return () -> listenerContainer.removeMessageListener(listener, topic);
+    }
+}
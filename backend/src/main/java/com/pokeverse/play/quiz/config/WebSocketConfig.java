@@ -1,7 +1,9 @@
 package com.pokeverse.play.quiz.config;
 
+import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
@@ -9,7 +11,12 @@ import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerCo
 
 @Configuration
 @EnableWebSocketMessageBroker
+@RequiredArgsConstructor
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
+
+    private final BrokerBridge brokerBridge;
+    private final FrameEncoding frameEncoding;
+
     @Value("${app.cors.allowed-origins}")
     private String allowedOrigins;
 
@@ -18,11 +25,27 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         registry.addEndpoint("/ws")
                 .setAllowedOriginPatterns(allowedOrigins)
                 .withSockJS();
+        // Plain WebSocket, for clients that negotiate binary frames
+        registry.addEndpoint("/ws/raw")
+                .setAllowedOriginPatterns(allowedOrigins)
+                .addInterceptors(frameEncoding.binaryCapable());
     }
 
     @Override
     public void configureMessageBroker(MessageBrokerRegistry registry) {
         registry.enableSimpleBroker("/topic","/queue");
         registry.setApplicationDestinationPrefixes("/app");
+        // Room and player messages also reach subscribers connected to other nodes; JSON frames get a CBOR form
+        registry.configureBrokerChannel().interceptors(brokerBridge, frameEncoding.broker());
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.interceptors(frameEncoding.inbound());
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.interceptors(frameEncoding.outbound());
     }
-}
\ No newline at end of file
+}
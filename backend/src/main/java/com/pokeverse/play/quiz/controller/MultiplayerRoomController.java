@@ -34,9 +34,25 @@ public class MultiplayerRoomController {
         return roomService.getMultiplayerRoom(code);
     }
 
+    @GetMapping("/lobby")
+    public ResponseEntity<?> getLobby(@RequestParam(required = false) String topic,
+                                      @RequestParam(defaultValue = "20") int limit) {
+        return roomService.getOpenRooms(topic, limit);
+    }
+
+    @PostMapping("/quick-match")
+    public ResponseEntity<?> quickMatch(@RequestParam Long userId, @RequestParam(required = false) String topic) {
+        return roomService.quickMatch(userId, topic);
+    }
+
     @GetMapping("/results/{code}")
     public ResponseEntity<?> getRoomResults(@PathVariable Long code) {
         return roomService.getMultiplayerRoomResults(code);
     }
 
+    @GetMapping("/results/room/{roomId}")
+    public ResponseEntity<?> getRoomResultsById(@PathVariable Long roomId) {
+        return roomService.getMultiplayerRoomResultsById(roomId);
+    }
+
 }
\ No newline at end of file
@@ -1,16 +1,21 @@
 package com.pokeverse.play.quiz.controller;
 
 import com.pokeverse.play.quiz.dto.QuestionDto;
+import com.pokeverse.play.quiz.service.QuestionImportService;
 import com.pokeverse.play.quiz.service.QuestionService;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+
 @RestController
 @RequestMapping("/v1/api/quiz/question")
 @RequiredArgsConstructor
 public class QuestionController {
     private final QuestionService questionService;
+    private final QuestionImportService questionImportService;
 
     @GetMapping("/test")
     public String testQuestion(@RequestParam String adminId, @RequestParam String adminPassword) {
@@ -56,4 +61,34 @@ public class QuestionController {
             return questionService.getQuestionById(id);
         }
     }
+
+    @PostMapping(value = "/import", consumes = {QuestionImportService.NDJSON, QuestionImportService.CSV})
+    public ResponseEntity<?> importQuestions(HttpServletRequest request, @RequestParam String adminId, @RequestParam String adminPassword) throws IOException {
+        if(questionService.isNotAdmin(adminId, adminPassword)){
+            return ResponseEntity.status(403).body("Forbidden: Invalid admin credentials");
+        }else{
+            return questionImportService.importQuestions(request.getInputStream(), request.getContentType());
+        }
+    }
+
+    @GetMapping("/duplicates")
+    public ResponseEntity<?> getDuplicateClusters(@RequestParam String adminId, @RequestParam String adminPassword) {
+        if(questionService.isNotAdmin(adminId, adminPassword)){
+            return ResponseEntity.status(403).body("Forbidden: Invalid admin credentials");
+        }else{
+            return questionService.getDuplicateClusters();
+        }
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<?> getDifficultyReport(@RequestParam(required = false) String topic,
+                                                 @RequestParam(defaultValue = "10") int limit,
+                                                 @RequestParam(defaultValue = "20") long minAttempts,
+                                                 @RequestParam String adminId, @RequestParam String adminPassword) {
+        if(questionService.isNotAdmin(adminId, adminPassword)){
+            return ResponseEntity.status(403).body("Forbidden: Invalid admin credentials");
+        }else{
+            return questionService.getDifficultyReport(topic, limit, minAttempts);
+        }
+    }
 }
@@ -0,0 +1,12 @@
+package com.pokeverse.play.quiz.dto;
+
+import java.util.List;
+
+/**
+ * Answers accepted in a round since the previous frame, in the order they
+ * were accepted, with each player's new score and rank.
+ */
+public record AnswerBatchDto(int round, List<Answer> answers) {
+
+    public record Answer(Long playerId, boolean correct, int score, int rank) {}
+}
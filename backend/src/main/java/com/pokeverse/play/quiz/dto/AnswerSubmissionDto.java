@@ -0,0 +1,16 @@
+package com.pokeverse.play.quiz.dto;
+
+public record AnswerSubmissionDto(
+        Outcome outcome,
+        long elapsedMs,
+        long answered,
+        int totalPlayers,
+        int rank,
+        PlayerProgressDto progress
+) {
+    public enum Outcome { ACCEPTED, EXPIRED, DUPLICATE }
+
+    public boolean allAnswered() {
+        return totalPlayers > 0 && answered >= totalPlayers;
+    }
+}
@@ -0,0 +1,30 @@
+package com.pokeverse.play.quiz.dto;
+
+import com.pokeverse.play.model.Question;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public record BankQuestionDto(
+        Long id,
+        String question,
+        List<String> options,
+        String answer,
+        String difficulty,
+        String topic
+) {
+    public static BankQuestionDto from(Question q) {
+        List<String> options = q.getOptions() == null
+                ? List.of()
+                : Collections.unmodifiableList(new ArrayList<>(q.getOptions()));
+        return new BankQuestionDto(
+                q.getId(),
+                q.getQuestion(),
+                options,
+                q.getAnswer(),
+                q.getDifficulty(),
+                q.getTopic()
+        );
+    }
+}
@@ -0,0 +1,5 @@
+package com.pokeverse.play.quiz.dto;
+
+import java.util.List;
+
+public record DuplicateClusterDto(List<SimilarQuestionDto> questions) {}
@@ -0,0 +1,12 @@
+package com.pokeverse.play.quiz.dto;
+
+/** An open room as listed in the public lobby. */
+public record LobbyRoomDto(
+        long id,
+        long code,
+        long hostId,
+        String name,
+        String topic,
+        int players,
+        int maxPlayers
+) {}
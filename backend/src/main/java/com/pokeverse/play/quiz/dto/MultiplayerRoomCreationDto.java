@@ -13,7 +13,8 @@ public record MultiplayerRoomCreationDto(
         int rounds,
         int maxPlayers,
         Status status,
-        List<MultiplayerPlayersInRoomDto> players
+        List<MultiplayerPlayersInRoomDto> players,
+        long version // roster version; 0 when built straight from the database
 ) {
     @Override
     public String toString() {
@@ -26,6 +27,7 @@ public record MultiplayerRoomCreationDto(
                 ", maxPlayers=" + maxPlayers +
                 ", status=" + status +
                 ", players=" + players +
+                ", version=" + version +
                 '}';
     }
 }
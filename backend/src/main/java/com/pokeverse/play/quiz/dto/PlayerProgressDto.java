@@ -0,0 +1,13 @@
+package com.pokeverse.play.quiz.dto;
+
+/** A room player's running totals, kept incrementally as answers come in. */
+public record PlayerProgressDto(
+        int score,
+        int currentStreak,
+        int longestStreak,
+        int correctAnswers,
+        int answers,
+        long answerTimeSumMs
+) {
+    public static final PlayerProgressDto NONE = new PlayerProgressDto(0, 0, 0, 0, 0, 0);
+}
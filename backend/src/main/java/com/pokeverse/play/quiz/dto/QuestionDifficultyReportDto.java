@@ -0,0 +1,9 @@
+package com.pokeverse.play.quiz.dto;
+
+import java.util.List;
+
+public record QuestionDifficultyReportDto(
+        String topic,
+        List<QuestionStatsDto> hardest,
+        List<QuestionStatsDto> easiest
+) {}
@@ -0,0 +1,3 @@
+package com.pokeverse.play.quiz.dto;
+
+public record QuestionImportErrorDto(long row, String message) {}
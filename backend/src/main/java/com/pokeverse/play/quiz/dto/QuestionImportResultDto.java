@@ -0,0 +1,17 @@
+package com.pokeverse.play.quiz.dto;
+
+import lombok.Builder;
+
+import java.util.List;
+
+@Builder
+public record QuestionImportResultDto(
+        long rows,
+        long inserted,
+        long duplicates,
+        long nearDuplicates, // inserted, but close to an existing question; listed with the errors
+        long rejected,
+        long elapsedMs,
+        double rowsPerSecond,
+        List<QuestionImportErrorDto> errors // capped, see QuestionImportService
+) {}
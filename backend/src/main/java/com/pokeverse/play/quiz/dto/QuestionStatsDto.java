@@ -0,0 +1,25 @@
+package com.pokeverse.play.quiz.dto;
+
+import com.pokeverse.play.model.QuestionStats;
+
+public record QuestionStatsDto(
+        Long questionId,
+        String question,
+        String topic,
+        long attempts,
+        long correct,
+        double accuracy,
+        long averageAnswerTimeMs
+) {
+    public static QuestionStatsDto from(QuestionStats s, String question) {
+        return new QuestionStatsDto(
+                s.getQuestionId(),
+                question,
+                s.getTopic(),
+                s.getAttempts(),
+                s.getCorrect(),
+                s.getAttempts() == 0 ? 0 : (double) s.getCorrect() / s.getAttempts() * 100,
+                s.getAttempts() == 0 ? 0 : s.getAnswerTimeSumMs() / s.getAttempts()
+        );
+    }
+}
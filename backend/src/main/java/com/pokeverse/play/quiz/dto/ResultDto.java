@@ -10,8 +10,14 @@ public record ResultDto(
         String topic,
         double accuracy,
         int streak,
-        String avatar
+        String avatar,
+        int rank,
+        // One character per round: '1' correct, '0' wrong, '-' not answered
+        String rounds
 ) {
+    public static double accuracy(int correctAnswers, int totalRounds) {
+        return totalRounds == 0 ? 0 : ((double) correctAnswers / totalRounds) * 100;
+    }
 
 }
 
@@ -0,0 +1,6 @@
+package com.pokeverse.play.quiz.dto;
+
+public record RoomDeckEntryDto(
+        Long multiplayerQuestionId, // The ID of the round's MultiplayerQuestion row
+        Long questionId             // The ID of the question in the bank
+) {}
@@ -0,0 +1,18 @@
+package com.pokeverse.play.quiz.dto;
+
+import java.util.List;
+
+/**
+ * Everything needed to run a room's game, as stored in Redis. A node that
+ * takes over a room rebuilds its game actor from this.
+ */
+public record RoomGameStateDto(
+        int round,
+        String topic,
+        Long activeQuestion,
+        long msUntilDeadline,
+        List<RoomDeckEntryDto> deck,
+        List<Player> players
+) {
+    public record Player(Long playerId, Long userId, String name, String avatar, PlayerProgressDto progress) {}
+}
@@ -28,4 +28,18 @@ public record RoomQuestionDto(
                 .build();
     }
 
+    public static RoomQuestionDto of(Long multiplayerQuestionId, BankQuestionDto question,
+                                     int roundNumber, int totalRounds) {
+        return RoomQuestionDto.builder()
+                .questionId(multiplayerQuestionId)
+                .question(question.question())
+                .options(question.options())
+                .roundNumber(roundNumber)
+                .difficulty(question.difficulty())
+                .topic(question.topic())
+                .totalRounds(totalRounds)
+                .timeLimit(30) // must match Redis TTL
+                .build();
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,11 @@
+package com.pokeverse.play.quiz.dto;
+
+public record RoomStandingDto(
+        int rank,
+        Long userId,
+        String name,
+        String avatar,
+        int score,
+        int longestStreak,
+        int correctAnswers
+) {}
@@ -0,0 +1,28 @@
+package com.pokeverse.play.quiz.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * One change to a lobby roster. Versions go up by one per change; a client
+ * that sees any other step resyncs from the room snapshot.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record RosterEventDto(
+        String type,
+        long version,
+        MultiplayerPlayersInRoomDto player,
+        Long userId,
+        Long hostId
+) {
+    public static RosterEventDto playerJoined(long version, MultiplayerPlayersInRoomDto player) {
+        return new RosterEventDto("player-joined", version, player, null, null);
+    }
+
+    public static RosterEventDto playerLeft(long version, long userId) {
+        return new RosterEventDto("player-left", version, null, userId, null);
+    }
+
+    public static RosterEventDto hostChanged(long version, long hostId) {
+        return new RosterEventDto("host-changed", version, null, null, hostId);
+    }
+}
@@ -0,0 +1,3 @@
+package com.pokeverse.play.quiz.dto;
+
+public record SimilarQuestionDto(Long questionId, String question, double similarity) {}
@@ -1,39 +1,233 @@
 package com.pokeverse.play.quiz.mapper;
 
-import com.pokeverse.play.quiz.service.RedisCacheService;
-import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Component;
 
-import java.util.Random;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
+/**
+ * Six-digit room codes.
+ * <p>
+ * Codes are a keyed Feistel permutation of an allocation index, so two
+ * indexes never share a code and allocating one needs no uniqueness checks:
+ * one script call either reuses a recycled index or bumps the counter.
+ * Released indexes go back to a pool scored by when they may be handed out
+ * again, which gives finished games time to show their results and lets
+ * other nodes' local entries expire first.
+ * <p>
+ * The code to room mapping lives in a Redis hash without a TTL
+ * ({@code c:<code>} and {@code r:<roomId>} fields), fronted by a small
+ * in-process LRU. Mappings of rooms abandoned in the lobby are released by
+ * {@code RoomCodeSweeper}.
+ */
+@Slf4j
 @Component
-@RequiredArgsConstructor
 public class RoomIdAndCodeMapper {
 
-    private final RedisCacheService redisCacheService;
-    private final Random random = new Random();
-    private static final String CODE_PREFIX = "room_code";
+    static final long CODE_BASE = 100_000;
+    static final int CODE_SPACE = 900_000; // 100000..999999
+
+    private static final int HALF_BITS = 10; // 2^20 >= CODE_SPACE, walked back into range
+    private static final int HALF_MASK = (1 << HALF_BITS) - 1;
+    private static final int FEISTEL_ROUNDS = 4;
+
+    private static final int LOCAL_CAPACITY = 10_000;
+    private static final long LOCAL_TTL_MS = 60_000;
+    private static final Duration REUSE_AFTER_DELETE = Duration.ofMinutes(5); // longer than LOCAL_TTL_MS
+
+    private static final String MAP_KEY = "room:codes";
+    private static final String FREE_KEY = "room:codes:free";
+    private static final String SEQ_KEY = "room:codes:seq";
+    private static final String LEGACY_PREFIX = "room_code:";
+
+    // Returns a recycled index if one is due, else the next fresh one, or -1 when all are in use
+    private static final RedisScript<Long> ALLOCATE = RedisScript.of("""
+            local free = redis.call('ZRANGEBYSCORE', KEYS[2], '-inf', ARGV[1], 'LIMIT', 0, 1)
+            if free[1] then
+                redis.call('ZREM', KEYS[2], free[1])
+                return tonumber(free[1])
+            end
+            local n = redis.call('INCR', KEYS[1])
+            if n > tonumber(ARGV[2]) then
+                redis.call('DECR', KEYS[1])
+                return -1
+            end
+            return n - 1
+            """, Long.class);
+
+    // Drops both directions of a room's mapping and returns its code, or 0 if it had none
+    private static final RedisScript<Long> UNMAP = RedisScript.of("""
+            local code = redis.call('HGET', KEYS[1], 'r:' .. ARGV[1])
+            if not code then return 0 end
+            redis.call('HDEL', KEYS[1], 'r:' .. ARGV[1])
+            if redis.call('HGET', KEYS[1], 'c:' .. code) == ARGV[1] then
+                redis.call('HDEL', KEYS[1], 'c:' .. code)
+            end
+            return tonumber(code)
+            """, Long.class);
+
+    private final StringRedisTemplate redis;
+    private final long[] roundKeys = new long[FEISTEL_ROUNDS];
+
+    private final Map<Long, Cached> local = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Cached> eldest) {
+            return size() > LOCAL_CAPACITY;
+        }
+    };
+
+    private record Cached(Long roomId, long expiresAt) {}
+
+    public RoomIdAndCodeMapper(StringRedisTemplate redis,
+                               @Value("${app.room-code.key:pokeverse-room-codes}") String key) {
+        this.redis = redis;
+        long seed = 0;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            seed = seed * 31 + b;
+        }
+        for (int i = 0; i < FEISTEL_ROUNDS; i++) {
+            seed += 0x9E3779B97F4A7C15L;
+            roundKeys[i] = mix(seed);
+        }
+    }
+
+    /* ---------------- LOOKUP ---------------- */
 
     public Long getRoomIdByCode(Long code) {
-        return redisCacheService.get(CODE_PREFIX, code).orElse(null);
+        long now = System.currentTimeMillis();
+        synchronized (local) {
+            Cached c = local.get(code);
+            if (c != null && c.expiresAt() > now) return c.roomId();
+        }
+
+        Object v = redis.opsForHash().get(MAP_KEY, "c:" + code);
+        String roomId = v != null ? v.toString() : redis.opsForValue().get(LEGACY_PREFIX + code);
+        if (roomId == null) return null;
+
+        Long id = Long.parseLong(roomId);
+        synchronized (local) {
+            local.put(code, new Cached(id, now + LOCAL_TTL_MS));
+        }
+        return id;
     }
 
+    /* ---------------- ALLOCATION ---------------- */
+
     public Long assignCodeToRoom(Long roomId) {
-        Long code = generateUniqueCode();
-        redisCacheService.set(CODE_PREFIX, code, roomId);
-        System.out.println("Code in mapper: "+ getRoomIdByCode(code));
+        Long index = redis.execute(
+                ALLOCATE, List.of(SEQ_KEY, FREE_KEY),
+                String.valueOf(System.currentTimeMillis()), String.valueOf(CODE_SPACE)
+        );
+        if (index == null || index < 0) {
+            throw new IllegalStateException("No room codes left to allocate");
+        }
+
+        long code = encode(index);
+        redis.opsForHash().putAll(MAP_KEY, Map.of(
+                "c:" + code, roomId.toString(),
+                "r:" + roomId, String.valueOf(code)
+        ));
         return code;
     }
 
-    private Long generateUniqueCode() {
-        Long code;
+    /** Room deleted or abandoned before it was played: its code can be reused shortly. */
+    public void deleteRoom(Long roomId) {
+        release(roomId, REUSE_AFTER_DELETE);
+    }
+
+    /**
+     * Unmaps the room's code and returns it to the pool once {@code keepFor}
+     * has passed. Until then the code still resolves nowhere, so it cannot
+     * be confused with the next room that gets it.
+     */
+    public void release(Long roomId, Duration keepFor) {
+        Long code = redis.execute(UNMAP, List.of(MAP_KEY), roomId.toString());
+        if (code == null || code == 0) return;
+
+        synchronized (local) {
+            local.remove(code);
+        }
+        long reusableAt = System.currentTimeMillis() + keepFor.toMillis();
+        redis.opsForZSet().add(FREE_KEY, String.valueOf(decode(code)), reusableAt);
+        log.debug("Released code {} of room {}", code, roomId);
+    }
+
+    /** Feeds the ids of all rooms holding a code to {@code batches}, HSCANning so Redis is never blocked. */
+    public void scanRoomIds(int batchSize, Consumer<List<Long>> batches) {
+        ScanOptions options = ScanOptions.scanOptions().match("r:*").count(batchSize).build();
+        List<Long> batch = new ArrayList<>(batchSize);
+        try (Cursor<Map.Entry<Object, Object>> cursor = redis.opsForHash().scan(MAP_KEY, options)) {
+            while (cursor.hasNext()) {
+                batch.add(Long.parseLong(cursor.next().getKey().toString().substring(2)));
+                if (batch.size() == batchSize) {
+                    batches.accept(List.copyOf(batch));
+                    batch.clear();
+                }
+            }
+        }
+        if (!batch.isEmpty()) batches.accept(List.copyOf(batch));
+    }
+
+    /* ---------------- PERMUTATION ---------------- */
+
+    long encode(long index) {
+        long x = index;
         do {
-            code = (long) (100000 + random.nextInt(900000)); // ensures 6 digits
-        } while (getRoomIdByCode(code) != null);
-        return code;
+            x = permute(x);
+        } while (x >= CODE_SPACE);
+        return CODE_BASE + x;
+    }
+
+    long decode(long code) {
+        long x = code - CODE_BASE;
+        do {
+            x = unpermute(x);
+        } while (x >= CODE_SPACE);
+        return x;
+    }
+
+    // Balanced Feistel network over 20 bits; cycle-walking in encode/decode keeps it within CODE_SPACE
+    private long permute(long x) {
+        long l = x >>> HALF_BITS;
+        long r = x & HALF_MASK;
+        for (int i = 0; i < FEISTEL_ROUNDS; i++) {
+            long t = l ^ round(r, i);
+            l = r;
+            r = t;
+        }
+        return (l << HALF_BITS) | r;
+    }
+
+    private long unpermute(long x) {
+        long l = x >>> HALF_BITS;
+        long r = x & HALF_MASK;
+        for (int i = FEISTEL_ROUNDS - 1; i >= 0; i--) {
+            long t = r ^ round(l, i);
+            r = l;
+            l = t;
+        }
+        return (l << HALF_BITS) | r;
+    }
+
+    private long round(long half, int i) {
+        return mix(half ^ roundKeys[i]) & HALF_MASK;
     }
 
-    public void deleteRoom(Long code) {
-        redisCacheService.delete(CODE_PREFIX, code);
+    // SplitMix64 finalizer
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
     }
 }
@@ -13,6 +13,10 @@ import java.util.stream.Collectors;
 public class RoomMapper {
     private static final Logger log = LoggerFactory.getLogger(RoomMapper.class);
     public static MultiplayerRoomCreationDto toDto(Room room, Long code) {
+        return toDto(room, code, 0);
+    }
+
+    public static MultiplayerRoomCreationDto toDto(Room room, Long code, long version) {
         List<MultiplayerPlayersInRoomDto> players = room.getPlayers().stream()
                 .map(RoomMapper::toPlayerDto)
                 .collect(Collectors.toList());
@@ -24,13 +28,14 @@ public class RoomMapper {
                                                 room.getTotalRounds(),
                                                 room.getMaxPlayers(),
                                                 room.getStatus(),
-                                                players
+                                                players,
+                                                version
                                         );
-        log.info("Room DTO created: {}", roomDto);
+        log.debug("Room DTO created: {}", roomDto);
         return roomDto;
     }
 
-    private static MultiplayerPlayersInRoomDto toPlayerDto(RoomPlayer player) {
+    public static MultiplayerPlayersInRoomDto toPlayerDto(RoomPlayer player) {
         return new MultiplayerPlayersInRoomDto(
                 player.getId(),
                 player.getUserId(),
@@ -0,0 +1,193 @@
+package com.pokeverse.play.quiz.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Redis leases with owner tokens and fencing.
+ * <p>
+ * A lease is {@code SET key token NX PX ttl} with a token unique to each
+ * acquisition, so release and renewal are compare-and-set and never touch a
+ * lease someone else holds. Every acquisition also increments
+ * {@code <key>:fence}; the returned fencing token only grows, so writes
+ * stamped with it can reject a holder whose lease has already moved on.
+ * The fence counter expires {@link #FENCE_TTL} after the lease was last
+ * held, long after any state stamped with its tokens.
+ * A watchdog on its own thread renews every held lease at a third of its
+ * TTL and reports the ones that were lost; other scheduled work cannot
+ * delay it past the TTL.
+ * <p>
+ * Metrics: {@code quiz.lease.acquire} (tag {@code outcome}: acquired,
+ * contended), {@code quiz.lease.renewed}, {@code quiz.lease.lost}.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LeaseLockService {
+
+    static final Duration LEASE_TTL = Duration.ofSeconds(3);
+    static final long WATCHDOG_INTERVAL_MS = 1_000; // LEASE_TTL / 3
+    static final Duration FENCE_TTL = Duration.ofDays(1);
+    private static final int RENEW_CHUNK = 500;
+
+    // Returns the new fencing token, or 0 when the lease is held by someone else
+    private static final RedisScript<Long> ACQUIRE = RedisScript.of("""
+            if redis.call('SET', KEYS[1], ARGV[1], 'NX', 'PX', ARGV[2]) then
+                local fence = redis.call('INCR', KEYS[2])
+                redis.call('PEXPIRE', KEYS[2], ARGV[3])
+                return fence
+            end
+            return 0
+            """, Long.class);
+
+    private static final RedisScript<Long> RELEASE = RedisScript.of("""
+            if redis.call('GET', KEYS[1]) == ARGV[1] then
+                return redis.call('DEL', KEYS[1])
+            end
+            return 0
+            """, Long.class);
+
+    // KEYS are n lease keys then their n fence keys, ARGV[i] the lease tokens, then the lease and fence TTLs;
+    // returns indexes of lost leases
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> RENEW = RedisScript.of("""
+            local n = #KEYS / 2
+            local ttl = ARGV[n + 1]
+            local fenceTtl = ARGV[n + 2]
+            local lost = {}
+            for i = 1, n do
+                if redis.call('GET', KEYS[i]) == ARGV[i] then
+                    redis.call('PEXPIRE', KEYS[i], ttl)
+                    redis.call('PEXPIRE', KEYS[n + i], fenceTtl)
+                else
+                    table.insert(lost, i - 1)
+                end
+            end
+            return lost
+            """, List.class);
+
+    private final StringRedisTemplate redis;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, Held> held = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService watchdog = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "lease-watchdog");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private Counter acquired;
+    private Counter contended;
+    private Counter renewed;
+    private Counter lost;
+
+    public record Lease(String key, String owner, long fencingToken) {}
+
+    private record Held(Lease lease, Consumer<Lease> onLost) {}
+
+    @PostConstruct
+    public void init() {
+        acquired = meterRegistry.counter("quiz.lease.acquire", "outcome", "acquired");
+        contended = meterRegistry.counter("quiz.lease.acquire", "outcome", "contended");
+        renewed = meterRegistry.counter("quiz.lease.renewed");
+        lost = meterRegistry.counter("quiz.lease.lost");
+        watchdog.scheduleWithFixedDelay(this::renew, WATCHDOG_INTERVAL_MS, WATCHDOG_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Takes the lease if it is free. While held, the watchdog keeps it alive;
+     * if it is ever lost, {@code onLost} runs once and the lease is forgotten.
+     */
+    public Optional<Lease> tryAcquire(String key, String ownerPrefix, Consumer<Lease> onLost) {
+        String owner = ownerPrefix + ":" + UUID.randomUUID();
+        Long fence = redis.execute(
+                ACQUIRE, List.of(key, fenceKey(key)),
+                owner, String.valueOf(LEASE_TTL.toMillis()), String.valueOf(FENCE_TTL.toMillis())
+        );
+        if (fence == null || fence == 0) {
+            contended.increment();
+            return Optional.empty();
+        }
+
+        Lease lease = new Lease(key, owner, fence);
+        held.put(key, new Held(lease, onLost));
+        acquired.increment();
+        return Optional.of(lease);
+    }
+
+    private static String fenceKey(String key) {
+        return key + ":fence";
+    }
+
+    public void release(Lease lease) {
+        held.computeIfPresent(lease.key(), (k, h) -> h.lease().equals(lease) ? null : h);
+        redis.execute(RELEASE, List.of(lease.key()), lease.owner());
+    }
+
+    /** Current holder's owner token, if the lease is held by anyone. */
+    public Optional<String> holder(String key) {
+        return Optional.ofNullable(redis.opsForValue().get(key));
+    }
+
+    /* ---------------- WATCHDOG ---------------- */
+
+    void renew() {
+        List<Held> all = new ArrayList<>(held.values());
+        for (int from = 0; from < all.size(); from += RENEW_CHUNK) {
+            List<Held> chunk = all.subList(from, Math.min(all.size(), from + RENEW_CHUNK));
+            List<String> args = new ArrayList<>(chunk.size() + 2);
+            chunk.forEach(h -> args.add(h.lease().owner()));
+            args.add(String.valueOf(LEASE_TTL.toMillis()));
+            args.add(String.valueOf(FENCE_TTL.toMillis()));
+            List<String> keys = new ArrayList<>(chunk.size() * 2);
+            chunk.forEach(h -> keys.add(h.lease().key()));
+            chunk.forEach(h -> keys.add(fenceKey(h.lease().key())));
+
+            List<?> lostIndexes;
+            try {
+                lostIndexes = redis.execute(RENEW, keys, args.toArray());
+            } catch (Exception e) {
+                // Keep going: a throw would cancel the periodic task for good
+                log.error("Lease renewal failed for {} leases: {}", chunk.size(), e.getMessage());
+                continue;
+            }
+
+            int lostCount = lostIndexes == null ? 0 : lostIndexes.size();
+            renewed.increment(chunk.size() - lostCount);
+            if (lostIndexes == null) continue;
+            for (Object index : lostIndexes) {
+                Held h = chunk.get(((Number) index).intValue());
+                if (held.remove(h.lease().key(), h)) {
+                    lost.increment();
+                    log.warn("Lease {} expired or was taken over", h.lease().key());
+                    try {
+                        h.onLost().accept(h.lease());
+                    } catch (Exception e) {
+                        log.error("Lost-lease handler failed for {}: {}", h.lease().key(), e.getMessage(), e);
+                    }
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void releaseAll() {
+        watchdog.shutdown();
+        new ArrayList<>(held.values()).forEach(h -> release(h.lease()));
+    }
+}
@@ -1,45 +1,112 @@
 package com.pokeverse.play.quiz.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.pokeverse.play.model.*;
 import com.pokeverse.play.quiz.dto.AnswerValidationDto;
-import com.pokeverse.play.quiz.dto.LeaderBoardDto;
-import com.pokeverse.play.quiz.dto.RoomQuestionDto;
+import com.pokeverse.play.quiz.dto.BankQuestionDto;
+import com.pokeverse.play.quiz.dto.PlayerProgressDto;
+import com.pokeverse.play.quiz.dto.RoomDeckEntryDto;
+import com.pokeverse.play.quiz.dto.RoomGameStateDto;
+import com.pokeverse.play.quiz.mapper.RoomIdAndCodeMapper;
 import com.pokeverse.play.quiz.utils.WebsocketMessingUtil;
 import com.pokeverse.play.repository.*;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.context.ApplicationContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
 
-import java.util.Comparator;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.*;
-import java.util.concurrent.atomic.AtomicInteger;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class MultiplayerRoomQuizService {
 
-    private final ApplicationContext context;
+    // Results are read by room code, so finished rooms keep theirs this long
+    private static final Duration CODE_RETENTION = Duration.ofDays(1);
 
     private final RoomRepository roomRepository;
     private final QuestionRepository questionRepository;
     private final MultiplayerQuestionRepository multiplayerQuestionRepository;
-    private final MultiplayerAttemptRepository multiplayerAttemptRepository;
-    private final RoomPlayerRepository roomPlayerRepository;
 
     private final WebsocketMessingUtil websocketMessingUtil;
     private final RedisRoomAndQuestionService redisService;
+    private final RoomGamePersistence roomGamePersistence;
+    private final QuestionBank questionBank;
+    private final ObjectMapper objectMapper;
+    private final QuestionStatsAggregator questionStatsAggregator;
+    private final RoomResultsService roomResultsService;
+    private final RoomTimerService roomTimerService;
+    private final RoomOwnershipService roomOwnershipService;
+    private final RoomIdAndCodeMapper roomIdAndCodeMapper;
+    private final RoomLobbyService roomLobbyService;
+    private final RoomRosterService roomRosterService;
+    private final StringRedisTemplate redis;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.quiz.answer-batch-interval:150ms}")
+    private Duration answerBatchInterval;
+
+    private final ExecutorService actorExecutor =
+            Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+    private final ScheduledExecutorService answerFlusher = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "answer-batch-flusher");
+        t.setDaemon(true);
+        return t;
+    });
+    private final Map<Long, RoomGameActor> games = new ConcurrentHashMap<>();
+
+    private RoomGameActor.Services actorServices;
+
+    @PostConstruct
+    public void init() {
+        actorServices = new RoomGameActor.Services(
+                websocketMessingUtil, redisService, roomGamePersistence,
+                questionStatsAggregator, roomResultsService, objectMapper, roomTimerService, actorExecutor,
+                new RoomGameActor.AnswerBatching(answerFlusher, answerBatchInterval,
+                        DistributionSummary.builder("quiz.game.answer.batch.size")
+                                .description("Answers carried by one /game/answer frame")
+                                .register(meterRegistry))
+        );
+        roomOwnershipService.setListeners(this::resumeGame, this::abandonGame);
+
+        // Answers for rooms this node owns, forwarded by the node the player is connected to
+        listenerContainer.addMessageListener((message, pattern) -> {
+            try {
+                answerLocally(objectMapper.readValue(message.getBody(), AnswerValidationDto.class));
+            } catch (Exception e) {
+                log.error("Dropping malformed forwarded answer: {}", e.getMessage());
+            }
+        }, new ChannelTopic(answerChannel(roomOwnershipService.nodeId())));
+    }
 
-    private final ScheduledExecutorService scheduler =
-            Executors.newScheduledThreadPool(2);
-    private final Map<Long, ScheduledFuture<?>> roomTasks = new ConcurrentHashMap<>();
+    private static String answerChannel(String nodeId) {
+        return "quiz:node:" + nodeId + ":answers";
+    }
 
-    private static final int QUESTION_INTERVAL_SECONDS = 30;
-    private static final int MAX_POINT = 310;
+    @PreDestroy
+    public void shutdown() {
+        answerFlusher.shutdown();
+        actorExecutor.shutdown();
+    }
 
     /* ---------------------------------------------------- */
     /* GAME START                                           */
@@ -47,187 +114,169 @@ public class MultiplayerRoomQuizService {
 
     @Transactional
     public void startGame(Long roomId, Long hostId) {
-        Room room = roomRepository.findById(roomId).orElse(null);
-        if (room == null || !room.isHost(hostId)) return;
+        Room room = roomRepository.findByIdForUpdate(roomId).orElse(null);
+        if (room == null || !room.isHost(hostId) || room.getStatus() != Status.NOT_STARTED) return;
 
         if (room.getPlayers().size() < 2) {
             websocketMessingUtil.sendError(hostId, "Need at least 2 players");
             return;
         }
 
+        String topic = (room.getTopic() == null || room.getTopic().equalsIgnoreCase("ALL"))
+                ? null : room.getTopic();
+
+        // Draw the whole deck up front: distinct questions, no per-round selection
+        List<BankQuestionDto> drawn = questionBank.draw(topic, null, room.getTotalRounds());
+        if (drawn.size() < room.getTotalRounds()) {
+            websocketMessingUtil.sendError(hostId, "Not enough questions for this topic");
+            return;
+        }
+
+        List<MultiplayerQuestion> saved = new ArrayList<>(drawn.size());
+        for (int i = 0; i < drawn.size(); i++) {
+            saved.add(MultiplayerQuestion.builder()
+                    .room(room)
+                    .question(questionRepository.getReferenceById(drawn.get(i).id()))
+                    .roundNumber(i + 1)
+                    .build());
+        }
+        saved = multiplayerQuestionRepository.saveAll(saved);
+
+        List<RoomDeckEntryDto> deck = new ArrayList<>(saved.size());
+        for (int i = 0; i < saved.size(); i++) {
+            deck.add(new RoomDeckEntryDto(saved.get(i).getId(), drawn.get(i).id()));
+        }
+        redisService.initDeck(roomId, room.getTopic(), deck);
+        redisService.initLeaderboard(roomId, room.getPlayers().stream()
+                .map(p -> new RoomGameStateDto.Player(p.getId(), p.getUserId(), p.getName(), p.getAvatar(),
+                        new PlayerProgressDto(p.getScore(), p.getCurrentStreak(), p.getLongestStreak(),
+                                p.getCorrectAnswers(), p.getAnswers(), p.getAnswerTimeSumMs())))
+                .toList());
+
         room.setStatus(Status.IN_PROGRESS);
         roomRepository.save(room);
+        roomLobbyService.close(roomId, room.getTopic());
+        roomRosterService.statusChanged(roomId, Status.IN_PROGRESS);
 
         websocketMessingUtil.notifyRoom(
                 roomId, "/game/info",
                 Map.of("message", "Game_Starting")
         );
 
-        redisService.incrementRound(roomId); // initialize round = 1
-        startTicker(roomId);
+        eventPublisher.publishEvent(new GameStarted(roomId));
 
         log.info("Game started for room {}", roomId);
     }
 
-    private void startTicker(Long roomId) {
-        ScheduledFuture<?> task =
-                scheduler.scheduleAtFixedRate(() -> {
-                    MultiplayerRoomQuizService bean =
-                            context.getBean(MultiplayerRoomQuizService.class);
-                    bean.tick(roomId);
-                }, 5, QUESTION_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    public record GameStarted(Long roomId) {}
 
-        roomTasks.put(roomId, task);
+    /**
+     * Hands the room to the ownership ring only once its questions and status
+     * are committed; the game itself runs on whichever node the ring assigns.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onGameStarted(GameStarted event) {
+        roomOwnershipService.register(event.roomId());
     }
 
-    @Transactional
-    public void tick(Long roomId) {
-        if (!redisService.acquireLock(roomId)) return;
+    /* ---------------------------------------------------- */
+    /* OWNERSHIP                                            */
+    /* ---------------------------------------------------- */
 
-        try {
-            Room room = roomRepository.findById(roomId).orElse(null);
-            if (room == null || room.getStatus() != Status.IN_PROGRESS) {
-                stopGame(roomId);
-                return;
-            }
+    /** This node now owns the room: rebuild its actor from Redis and carry on. */
+    private void resumeGame(Long roomId) {
+        RoomGameStateDto state = redisService.loadGameState(roomId).orElse(null);
+        if (state == null) {
+            abortGame(roomId, "no game state in Redis");
+            return;
+        }
 
-            // Logic check: only proceed if there isn't a question currently active
-            if (redisService.hasActiveQuestion(roomId)) return;
+        // Questions added on another node may not have reached this node's bank yet
+        List<Long> missing = state.deck().stream()
+                .map(RoomDeckEntryDto::questionId)
+                .filter(id -> questionBank.get(id).isEmpty())
+                .toList();
+        if (!missing.isEmpty()) {
+            questionRepository.findAllById(missing).forEach(questionBank::put);
+        }
 
-            int round = redisService.getRound(roomId);
-            if (round > room.getTotalRounds()) {
-                endGame(room);
-                stopGame(roomId);
+        List<RoomGameActor.Round> rounds = new ArrayList<>(state.deck().size());
+        for (RoomDeckEntryDto entry : state.deck()) {
+            BankQuestionDto q = questionBank.get(entry.questionId()).orElse(null);
+            if (q == null) {
+                abortGame(roomId, "question " + entry.questionId() + " no longer exists");
                 return;
             }
+            rounds.add(new RoomGameActor.Round(entry.multiplayerQuestionId(), q));
+        }
 
-            String topic = (room.getTopic() == null || room.getTopic().equalsIgnoreCase("ALL"))
-                    ? null : room.getTopic();
-
-            // Use Optional to prevent NullPointerException
-            Question q = questionRepository.findByTopic(topic)
-                    .orElseThrow(() -> new RuntimeException("No questions found"));
+        List<RoomGameActor.PlayerState> players = state.players().stream()
+                .map(p -> new RoomGameActor.PlayerState(p.playerId(), p.userId(), p.name(), p.avatar(), p.progress()))
+                .toList();
 
-            MultiplayerQuestion mpq = multiplayerQuestionRepository.save(
-                    MultiplayerQuestion.builder()
-                            .room(room)
-                            .question(q)
-                            .roundNumber(round)
-                            .build()
-            );
+        RoomGameActor actor = new RoomGameActor(
+                roomId, state.topic(), rounds, players, roomOwnershipService.fencingToken(roomId),
+                actorServices, this::finishGame, games::remove
+        );
+        if (games.putIfAbsent(roomId, actor) != null) return;
+        actor.resume(state.round(), state.msUntilDeadline());
 
-            // State Init
-            redisService.setActiveQuestion(roomId, mpq.getId());
-            redisService.setActiveQuestionStart(roomId);
-            redisService.initPlayerAnswerState(roomId, room.getPlayers().size());
+        log.info("Running room {} from round {}", roomId, state.round());
+    }
 
-            websocketMessingUtil.notifyRoom(roomId, "/game/question", RoomQuestionDto.from(mpq));
-            redisService.incrementRound(roomId);
+    private void abandonGame(Long roomId) {
+        RoomGameActor actor = games.remove(roomId);
+        if (actor != null) actor.abandon();
+    }
 
+    /** The room cannot be resumed: end it the way a failing actor aborts, instead of leaving it IN_PROGRESS. */
+    private void abortGame(Long roomId, String reason) {
+        log.error("Aborting game in room {}: {}", roomId, reason);
+        try {
+            roomGamePersistence.updateRoomStatus(roomId, Status.COMPLETED);
+            websocketMessingUtil.notifyRoom(roomId, "/game/info", Map.of("message", "Game_Aborted"));
+            redisService.clearRoom(roomId);
         } catch (Exception e) {
-            log.error("Error in game tick for room {}: {}", roomId, e.getMessage());
-        } finally {
-            redisService.releaseLock(roomId);
+            log.error("Failed to report aborted game in room {}: {}", roomId, e.getMessage());
         }
+        finishGame(roomId);
     }
 
-    @Transactional
-    public void validateAnswer(AnswerValidationDto dto) {
-
-        Long questionId = redisService.getActiveQuestion(dto.roomId());
-        if (questionId == null) {
-            websocketMessingUtil.sendError(dto.userId(), "Question expired");
-            return;
-        }
-
-        MultiplayerQuestion mpq =
-                multiplayerQuestionRepository.findById(questionId).orElse(null);
-        if (mpq == null) return;
+    private void finishGame(Long roomId) {
+        games.remove(roomId);
+        roomOwnershipService.release(roomId);
+        roomIdAndCodeMapper.release(roomId, CODE_RETENTION);
+        roomRosterService.statusChanged(roomId, Status.COMPLETED);
+    }
 
-        RoomPlayer player =
-                roomPlayerRepository.findByRoomIdAndUserId(
-                        dto.roomId(), dto.userId()
-                ).orElse(null);
-        if (player == null) return;
+    /* ---------------------------------------------------- */
+    /* ANSWERS                                              */
+    /* ---------------------------------------------------- */
 
-        if (multiplayerAttemptRepository
-                .existsByPlayerAndMultiplayerQuestion(player, mpq)) {
+    public void validateAnswer(AnswerValidationDto dto) {
+        if (games.containsKey(dto.roomId())) {
+            answerLocally(dto);
             return;
         }
 
-        boolean correct =
-                mpq.getQuestion().getAnswer()
-                        .equalsIgnoreCase(dto.selectedOption());
-
-        multiplayerAttemptRepository.save(
-                MultiplayerAttempt.builder()
-                        .player(player)
-                        .multiplayerQuestion(mpq)
-                        .selectedOption(dto.selectedOption())
-                        .isCorrect(correct)
-                        .build()
-        );
-
-        if (correct) {
-            int seconds =
-                    (int) ((System.currentTimeMillis()
-                            - redisService.getActiveQuestionStart(dto.roomId())) / 1000);
-            player.setScore(player.getScore() + MAX_POINT - (seconds * 10));
-            roomPlayerRepository.save(player);
+        String owner = roomOwnershipService.ownerOf(dto.roomId()).orElse(null);
+        if (owner == null || owner.equals(roomOwnershipService.nodeId())) {
+            websocketMessingUtil.sendError(dto.userId(), "Question expired");
+            return;
         }
-
-        websocketMessingUtil.notifyRoom(
-                dto.roomId(),
-                "/game/answer",
-                Map.of(
-                        "playerId", player.getId(),
-                        "isCorrect", correct,
-                        "score", player.getScore()
-                )
-        );
-
-        long answered = redisService.incrementAnswered(dto.roomId());
-        int totalPlayers = redisService.getTotalPlayers(dto.roomId());
-
-        if (answered >= totalPlayers && totalPlayers > 0) {
-            log.info("All players answered early for room {}", dto.roomId());
-            redisService.clearActiveQuestion(dto.roomId()); // 🔥 critical
-            tick(dto.roomId());
+        try {
+            redis.convertAndSend(answerChannel(owner), objectMapper.writeValueAsString(dto));
+        } catch (JsonProcessingException e) {
+            log.error("Failed to forward answer for room {}: {}", dto.roomId(), e.getMessage());
         }
     }
 
-    private void stopGame(Long roomId) {
-        stopTicker(roomId);
-        redisService.clearRoom(roomId);
-    }
-
-    private void stopTicker(Long roomId) {
-        ScheduledFuture<?> task = roomTasks.remove(roomId);
-        if (task != null) {
-            task.cancel(false);
+    private void answerLocally(AnswerValidationDto dto) {
+        RoomGameActor actor = games.get(dto.roomId());
+        if (actor == null) {
+            websocketMessingUtil.sendError(dto.userId(), "Question expired");
+            return;
         }
-    }
-
-    private void endGame(Room room) {
-        room.setStatus(Status.COMPLETED);
-        roomRepository.save(room);
-
-        AtomicInteger rank = new AtomicInteger(1);
-        List<LeaderBoardDto> leaderboard =
-                room.getPlayers().stream()
-                        .sorted(Comparator.comparingInt(RoomPlayer::getScore).reversed())
-                        .map(p -> new LeaderBoardDto(
-                                rank.getAndIncrement(),
-                                p.getUserId(),
-                                p.getName(),
-                                p.getScore()
-                        ))
-                        .toList();
-
-        websocketMessingUtil.notifyRoom(
-                room.getId(),
-                "/game/end",
-                Map.of("leaderboard", leaderboard)
-        );
+        actor.answer(dto);
     }
 }
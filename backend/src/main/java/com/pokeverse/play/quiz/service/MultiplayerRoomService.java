@@ -1,26 +1,36 @@
 package com.pokeverse.play.quiz.service;
 
-import com.fasterxml.jackson.core.type.TypeReference;
 import com.pokeverse.play.model.Room;
 import com.pokeverse.play.model.RoomPlayer;
 import com.pokeverse.play.model.Status;
 import com.pokeverse.play.model.User;
 import com.pokeverse.play.quiz.dto.CreateMultiplayerRoomDto;
+import com.pokeverse.play.quiz.dto.LobbyRoomDto;
+import com.pokeverse.play.quiz.dto.MultiplayerPlayersInRoomDto;
 import com.pokeverse.play.quiz.dto.MultiplayerRoomCreationDto;
 import com.pokeverse.play.quiz.dto.ResultDto;
+import com.pokeverse.play.quiz.dto.RosterEventDto;
+import com.pokeverse.play.quiz.dto.RoomStandingDto;
 import com.pokeverse.play.quiz.mapper.RoomIdAndCodeMapper;
 import com.pokeverse.play.quiz.mapper.RoomMapper;
 import com.pokeverse.play.quiz.utils.ErrorUtil;
+import com.pokeverse.play.repository.RoomPlayerRepository;
 import com.pokeverse.play.repository.RoomRepository;
 import com.pokeverse.play.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
 
@@ -32,12 +42,19 @@ public class MultiplayerRoomService {
 
     private final UserRepository userRepository;
     private final RoomRepository roomRepository;
-    private final RedisCacheService redisCacheService;
+    private final RoomPlayerRepository roomPlayerRepository;
+    private final RedisRoomAndQuestionService redisRoomAndQuestionService;
+    private final RoomResultsService roomResultsService;
+    private final RoomLobbyService roomLobbyService;
+    private final RoomRosterService roomRosterService;
     private final ErrorUtil errorUtil;
     private final RoomIdAndCodeMapper roomIdAndCodeMapper;
-    private final SimpMessagingTemplate messagingTemplate;
-    private static final String ROOM_CACHE_PREFIX = "room";
-    private static final String RESULTS_CACHE_PREFIX = "results";
+    private final TransactionTemplate transactionTemplate;
+
+    // Quick match: rooms tried before opening a new one, and the settings of a new one
+    private static final int QUICK_MATCH_CANDIDATES = 5;
+    private static final int QUICK_MATCH_ROUNDS = 10;
+    private static final int QUICK_MATCH_MAX_PLAYERS = 8;
 
     @Transactional
     public ResponseEntity<?> createMultiplayerRoom(CreateMultiplayerRoomDto dto) {
@@ -71,11 +88,9 @@ public class MultiplayerRoomService {
         room.addPlayer(hostPlayer);
         Room savedRoom = roomRepository.save(room);
         Long code = roomIdAndCodeMapper.assignCodeToRoom(savedRoom.getId());
+        roomLobbyService.open(savedRoom, code);
 
-        MultiplayerRoomCreationDto roomDto = RoomMapper.toDto(savedRoom, code);
-        cacheRoom(roomDto);
-
-        return ResponseEntity.ok(roomDto);
+        return ResponseEntity.ok(roomRosterService.seed(savedRoom, code));
     }
 
     public ResponseEntity<?> getMultiplayerRoom(Long code) {
@@ -83,7 +98,8 @@ public class MultiplayerRoomService {
         if (roomId == null)
             return errorUtil.notFound("Room not found");
 
-        MultiplayerRoomCreationDto cachedRoom = getRoomFromCache(roomId);
+        // Full roster snapshot with its version; clients resync from here after a missed delta
+        MultiplayerRoomCreationDto cachedRoom = roomRosterService.snapshot(roomId).orElse(null);
         if (cachedRoom != null) {
             return ResponseEntity.ok(cachedRoom);
         }
@@ -92,55 +108,123 @@ public class MultiplayerRoomService {
         if (room == null)
             return errorUtil.notFound("Room not found.");
 
-        MultiplayerRoomCreationDto roomDto = RoomMapper.toDto(room, code);
-        cacheRoom(roomDto);
-
-        return ResponseEntity.ok(roomDto);
+        return ResponseEntity.ok(roomRosterService.seed(room, code));
     }
 
-    @Transactional
+    /**
+     * Seats the user with one atomic reservation in Redis, then inserts their
+     * player row on its own; the room and its players are never loaded here.
+     * The insert holds a share lock on the room row and only goes ahead while
+     * the room is still waiting, so it cannot land in a game that has started.
+     * The roster delta goes out only once the row is committed.
+     */
     public ResponseEntity<?> joinMultiplayerRoom(Long code, Long userId) {
         Long roomId = roomIdAndCodeMapper.getRoomIdByCode(code);
         if (roomId == null){
             return errorUtil.notFound("Room not found");
         }
-        Room room = roomRepository.findById(roomId).orElse(null);
-        if (room == null){
-            return errorUtil.notFound("Room not found.");
+        User user = userRepository.findById(userId).orElse(null);
+        if (user == null)
+            return errorUtil.notFound("User not found.");
+
+        RoomLobbyService.SeatOutcome seat = roomLobbyService.reserveSeat(roomId, userId);
+        if (seat == RoomLobbyService.SeatOutcome.NOT_OPEN) {
+            // Not indexed (expired, or created before seats were reserved here): reindex from the database once
+            Room room = loadRoom(roomId).orElse(null);
+            if (room == null)
+                return errorUtil.notFound("Room not found.");
+            if (room.getStatus() != Status.NOT_STARTED)
+                return errorUtil.badRequest("Cannot join room - game already started.");
+            roomLobbyService.reopen(room, code);
+            seat = roomLobbyService.reserveSeat(roomId, userId);
         }
-        if (room.getStatus() != Status.NOT_STARTED)
+        if (seat == RoomLobbyService.SeatOutcome.NOT_OPEN)
             return errorUtil.badRequest("Cannot join room - game already started.");
-        if (room.isFull())
+        if (seat == RoomLobbyService.SeatOutcome.FULL)
             return errorUtil.badRequest("Room is full.");
-        if (room.hasPlayer(userId))
+        if (seat == RoomLobbyService.SeatOutcome.ALREADY_SEATED)
             return errorUtil.badRequest("Already in this room.");
-        User user = userRepository.findById(userId).orElse(null);
-        if (user == null)
-            return errorUtil.notFound("User not found.");
-        RoomPlayer newPlayer = RoomPlayer.builder()
-                .userId(user.getId())
-                .name(user.getUsername())
-                .avatar(user.getProfilePictureUrl())
-                .build();
-        room.addPlayer(newPlayer);
-        Room updatedRoom = roomRepository.save(room);
 
-        MultiplayerRoomCreationDto roomDto = RoomMapper.toDto(updatedRoom, code);
-        messagingTemplate.convertAndSend("/topic/room/" + roomId + "/quiz", roomDto);
-        cacheRoom(roomDto);
+        RoomPlayer newPlayer;
+        try {
+            newPlayer = transactionTemplate.execute(status -> {
+                // Whatever rolls the insert back, including a failed commit, gives the seat back
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int completion) {
+                        if (completion == STATUS_ROLLED_BACK) roomLobbyService.releaseSeat(roomId, userId);
+                    }
+                });
+                // The seat may have been taken just before the game started; only a waiting room takes players
+                String roomStatus = roomRepository.findStatusForShare(roomId).orElse(null);
+                if (!Status.NOT_STARTED.name().equals(roomStatus)) {
+                    status.setRollbackOnly();
+                    return null;
+                }
+                return roomPlayerRepository.save(RoomPlayer.builder()
+                        .room(roomRepository.getReferenceById(roomId))
+                        .userId(user.getId())
+                        .name(user.getUsername())
+                        .avatar(user.getProfilePictureUrl())
+                        .build());
+            });
+        } catch (CannotCreateTransactionException e) {
+            roomLobbyService.releaseSeat(roomId, userId); // never began, so nothing to roll back
+            throw e;
+        }
+        if (newPlayer == null)
+            return errorUtil.badRequest("Cannot join room - game already started.");
+
+        // Everyone else gets a one-player delta; only the joiner needs the full roster
+        MultiplayerPlayersInRoomDto playerDto = RoomMapper.toPlayerDto(newPlayer);
+        MultiplayerRoomCreationDto roomDto = roomRosterService.playerJoined(roomId, playerDto) > 0
+                ? roomRosterService.snapshot(roomId).orElse(null)
+                : null;
+        if (roomDto == null) {
+            roomDto = roomRosterService.seed(loadRoom(roomId).orElseThrow(), code);
+            roomRosterService.publish(roomId, RosterEventDto.playerJoined(roomDto.version(), playerDto));
+        }
 
         return ResponseEntity.ok(roomDto);
     }
 
-    @Transactional
+    // error is set when nothing changed
+    private record Departure(ResponseEntity<?> error, Room room, boolean hostLeft, boolean roomDeleted) {}
+
+    /** Removes the player in one transaction; Redis and subscribers hear of it only after the commit. */
     public ResponseEntity<?> leaveRoom(Long code, Long userId) {
         Long roomId = roomIdAndCodeMapper.getRoomIdByCode(code);
         if (roomId == null)
             return errorUtil.notFound("Room not found");
 
+        Departure departure = transactionTemplate.execute(status -> depart(roomId, userId));
+        if (departure.error() != null)
+            return departure.error();
+
+        Room room = departure.room();
+        if (departure.roomDeleted()) {
+            roomRosterService.delete(roomId);
+            roomIdAndCodeMapper.deleteRoom(roomId);
+            roomLobbyService.close(roomId, room.getTopic());
+            return ResponseEntity.ok("Room deleted as host left.");
+        }
+
+        roomLobbyService.releaseSeat(roomId, userId);
+        long version = roomRosterService.playerLeft(roomId, userId);
+        if (departure.hostLeft()) {
+            roomLobbyService.updateHost(roomId, room.getHostId());
+            if (version > 0) version = roomRosterService.hostChanged(roomId, room.getHostId());
+        }
+        if (version == 0) {
+            return ResponseEntity.ok(roomRosterService.seed(room, code));
+        }
+        return ResponseEntity.ok(RoomMapper.toDto(room, code, version));
+    }
+
+    private Departure depart(Long roomId, Long userId) {
         Room room = roomRepository.findById(roomId).orElse(null);
         if (room == null)
-            return errorUtil.notFound("Room not found.");
+            return new Departure(errorUtil.notFound("Room not found."), null, false, false);
 
         RoomPlayer player = room.getPlayers().stream()
                 .filter(p -> p.getUserId().equals(userId))
@@ -148,76 +232,131 @@ public class MultiplayerRoomService {
                 .orElse(null);
 
         if (player == null)
-            return errorUtil.badRequest("Not in this room.");
+            return new Departure(errorUtil.badRequest("Not in this room."), null, false, false);
 
-        if (room.isHost(userId)) {
+        boolean hostLeft = room.isHost(userId);
+        if (hostLeft && room.getPlayers().size() == 1) {
             roomRepository.delete(room);
-            invalidateCache(roomId);
-            return ResponseEntity.ok("Room deleted as host left.");
+            return new Departure(null, room, true, true);
         }
 
+        // A host who leaves others behind hands the room to the longest-seated player
         room.getPlayers().remove(player);
-        Room updatedRoom = roomRepository.save(room);
+        if (hostLeft) {
+            room.setHostId(room.getPlayers().stream()
+                    .min(Comparator.comparing(RoomPlayer::getId))
+                    .orElseThrow()
+                    .getUserId());
+        }
+        return new Departure(null, roomRepository.save(room), hostLeft, false);
+    }
 
-        MultiplayerRoomCreationDto roomDto = RoomMapper.toDto(updatedRoom, code);
-        cacheRoom(roomDto);
+    // Room with its players loaded, for indexing or reseeding it outside a transaction
+    private Optional<Room> loadRoom(Long roomId) {
+        return transactionTemplate.execute(status -> roomRepository.findById(roomId).map(room -> {
+            room.getPlayers().size();
+            return room;
+        }));
+    }
 
-        return ResponseEntity.ok(roomDto);
+    public ResponseEntity<?> getOpenRooms(String topic, int limit) {
+        if (limit <= 0 || limit > 100)
+            return errorUtil.badRequest("Limit must be between 1 and 100.");
+        return ResponseEntity.ok(roomLobbyService.listOpenRooms(topic, limit));
     }
 
+    /**
+     * Puts the user in the fullest open room for the topic, or opens a new
+     * room with them as host when none will take them. Each attempt commits
+     * or rolls back on its own, so a failed join cannot undo a later one.
+     */
+    public ResponseEntity<?> quickMatch(Long userId, String topic) {
+        for (LobbyRoomDto candidate : roomLobbyService.listOpenRooms(topic, QUICK_MATCH_CANDIDATES)) {
+            ResponseEntity<?> joined = joinMultiplayerRoom(candidate.code(), userId);
+            if (joined.getStatusCode().is2xxSuccessful()) {
+                return joined;
+            }
+        }
+        // Called on this instance, so @Transactional on createMultiplayerRoom does not apply here
+        return transactionTemplate.execute(status -> createMultiplayerRoom(new CreateMultiplayerRoomDto(
+                "Quick match", QUICK_MATCH_ROUNDS, userId, QUICK_MATCH_MAX_PLAYERS, topic
+        )));
+    }
 
+    /** Only while the code is mapped: codes of finished games are recycled after a while. */
     public ResponseEntity<?> getMultiplayerRoomResults(Long code) {
         final Long roomId = roomIdAndCodeMapper.getRoomIdByCode(code);
         if (roomId == null) {
             return errorUtil.notFound("Multiplayer room not found for code: " + code);
         }
-        List<ResultDto> cachedResults = redisCacheService.get(
-                RESULTS_CACHE_PREFIX,
-                roomId,
-                new TypeReference<List<ResultDto>>() {}
-        ).orElse(null);
+        return getMultiplayerRoomResultsById(roomId);
+    }
 
-        if (cachedResults != null) {
-            return ResponseEntity.ok(cachedResults);
+    /** Results by room id, which unlike the code stays valid once the game is over. */
+    public ResponseEntity<?> getMultiplayerRoomResultsById(Long roomId) {
+        // Finished games: the snapshot written at game end, served as stored
+        String snapshot = roomResultsService.find(roomId).orElse(null);
+        if (snapshot != null) {
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(snapshot);
         }
-        Room room = roomRepository.findById(roomId).orElse(null);
+
+        // Running games: live leaderboard, scores, ranks and streaks without loading the players
+        List<RoomStandingDto> standings = redisRoomAndQuestionService.getStandings(roomId, 0);
+        if (!standings.isEmpty()) {
+            Room room = roomRepository.findById(roomId).orElse(null);
+            if (room == null) {
+                return errorUtil.notFound("Room not found in database for ID: " + roomId);
+            }
+            final int totalRounds = room.getTotalRounds();
+            List<ResultDto> results = standings.stream()
+                    .map(s -> ResultDto.builder()
+                            .id(s.userId())
+                            .name(s.name())
+                            .score(s.score())
+                            .topic(room.getTopic())
+                            .accuracy(ResultDto.accuracy(s.correctAnswers(), totalRounds))
+                            .streak(s.longestStreak())
+                            .avatar(s.avatar())
+                            .rank(s.rank())
+                            .build())
+                    .toList();
+            return ResponseEntity.ok(results);
+        }
+
+        // Players and their room in one query; the streak and accuracy counters live on the rows
+        List<RoomPlayer> players = roomPlayerRepository.findAllWithRoomByRoomId(roomId);
+        Room room = players.isEmpty()
+                ? roomRepository.findById(roomId).orElse(null)
+                : players.get(0).getRoom();
         if (room == null) {
             return errorUtil.notFound("Room not found in database for ID: " + roomId);
         }
         final int totalRounds = room.getTotalRounds();
 
-        List<ResultDto> finalResults = room.getPlayers().stream()
-                .map(p -> {
-                    double accuracy = ((double) p.getScore() / (totalRounds * 300)) * 100;
-                    return ResultDto.builder()
-                            .id(p.getUserId())
-                            .name(p.getName())
-                            .score(p.getScore())
-                            .topic(room.getTopic())
-                            .accuracy(accuracy)
-                            .streak(p.getLongestStreak())
-                            .avatar(p.getAvatar())
-                            .build();
-                })
-                .sorted((r1, r2) -> Integer.compare(r2.score(), r1.score()))
+        List<RoomPlayer> ranked = players.stream()
+                .sorted((p1, p2) -> Integer.compare(p2.getScore(), p1.getScore()))
                 .toList();
-        redisCacheService.set(RESULTS_CACHE_PREFIX, roomId, finalResults);
+        List<ResultDto> finalResults = new ArrayList<>(ranked.size());
+        for (int i = 0; i < ranked.size(); i++) {
+            RoomPlayer p = ranked.get(i);
+            finalResults.add(ResultDto.builder()
+                    .id(p.getUserId())
+                    .name(p.getName())
+                    .score(p.getScore())
+                    .topic(room.getTopic())
+                    .accuracy(ResultDto.accuracy(p.getCorrectAnswers(), totalRounds))
+                    .streak(p.getLongestStreak())
+                    .avatar(p.getAvatar())
+                    .rank(i + 1)
+                    .build());
+        }
+        // Games finished before snapshots existed get one now, without per-round detail
+        if (room.getStatus() == Status.COMPLETED) {
+            roomResultsService.publish(roomId, finalResults);
+        }
         return ResponseEntity.ok(finalResults);
     }
 
-    private MultiplayerRoomCreationDto getRoomFromCache(Long roomId) {
-        return redisCacheService.get(ROOM_CACHE_PREFIX, roomId, MultiplayerRoomCreationDto.class)
-                .orElse(null);
-    }
-
-    private void cacheRoom(MultiplayerRoomCreationDto roomDto) {
-        redisCacheService.set(ROOM_CACHE_PREFIX, roomDto.id(), roomDto);
-    }
-
-    private void invalidateCache(Long roomId) {
-        redisCacheService.delete(ROOM_CACHE_PREFIX, roomId);
-    }
-
 }
 
 
@@ -0,0 +1,256 @@
+package com.pokeverse.play.quiz.service;
+
+import com.pokeverse.play.model.Question;
+import com.pokeverse.play.quiz.dto.BankQuestionDto;
+import com.pokeverse.play.repository.QuestionRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * In-memory index of the question bank, partitioned by topic and difficulty.
+ * Replaces the native {@code ORDER BY RANDOM()} queries: a draw of k questions
+ * is O(k) regardless of how many questions the bank holds.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class QuestionBank {
+
+    private static final String ANY = "*";
+    private static final int LOAD_PAGE_SIZE = 1000;
+
+    private final QuestionRepository questionRepository;
+    private final QuestionBankSnapshot snapshot;
+
+    private final Map<Long, BankQuestionDto> questions = new HashMap<>();
+    private final Map<String, Pool> pools = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /* ---------------- LOAD ---------------- */
+
+    /**
+     * Restores the bank from the local snapshot and applies the rows changed
+     * since it was written; falls back to a full keyset scan without one.
+     */
+    @PostConstruct
+    public void load() {
+        long started = System.currentTimeMillis();
+        // Taken before reading so rows written during the load are picked up next boot
+        Instant version = questionRepository.findLatestUpdate();
+
+        Optional<QuestionBankSnapshot.Contents> restoredSnapshot = snapshot.read();
+        if (restoredSnapshot.isPresent()) {
+            restoredSnapshot.get().questions().forEach(this::put);
+            int restored = size();
+            applyChangesSince(restoredSnapshot.get().version());
+            log.info("Question bank restored {} questions from snapshot, {} after deltas, in {} ms",
+                    restored, size(), System.currentTimeMillis() - started);
+        } else {
+            loadAll();
+            log.info("Question bank loaded {} questions in {} ms", size(), System.currentTimeMillis() - started);
+        }
+
+        if (version != null) {
+            List<BankQuestionDto> questions = snapshot();
+            CompletableFuture.runAsync(() -> snapshot.write(questions, version));
+        }
+    }
+
+    private void loadAll() {
+        // A full scan is the source of truth: nothing left over may survive it
+        clear();
+        long lastId = 0L;
+        while (true) {
+            List<Long> ids = questionRepository.findIdsAfter(lastId, PageRequest.of(0, LOAD_PAGE_SIZE));
+            if (ids.isEmpty()) break;
+
+            for (Question q : questionRepository.findAllById(ids)) {
+                put(BankQuestionDto.from(q));
+            }
+            lastId = ids.getLast();
+        }
+    }
+
+    private void applyChangesSince(Instant since) {
+        for (Question q : questionRepository.findByUpdatedAtAfter(since)) {
+            put(BankQuestionDto.from(q));
+        }
+
+        // Deletes leave no row behind, and a delete plus an insert keeps the count
+        // unchanged, so always reconcile against the live id set (one id-only query)
+        Set<Long> live = new HashSet<>(questionRepository.findAllIds());
+        for (BankQuestionDto q : snapshot()) {
+            if (!live.contains(q.id())) remove(q.id());
+        }
+    }
+
+    /* ---------------- DRAW ---------------- */
+
+    public Optional<BankQuestionDto> draw(String topic, String difficulty) {
+        List<BankQuestionDto> drawn = draw(topic, difficulty, 1);
+        return drawn.isEmpty() ? Optional.empty() : Optional.of(drawn.getFirst());
+    }
+
+    /**
+     * Draws up to {@code count} distinct questions uniformly at random.
+     * A {@code null}, blank or "ALL" filter matches every value.
+     */
+    public List<BankQuestionDto> draw(String topic, String difficulty, int count) {
+        lock.readLock().lock();
+        try {
+            Pool pool = pools.get(poolKey(normalize(topic), normalize(difficulty)));
+            if (pool == null || count <= 0) return List.of();
+
+            List<BankQuestionDto> drawn = new ArrayList<>(Math.min(count, pool.size));
+            for (long id : pool.sample(count)) {
+                drawn.add(questions.get(id));
+            }
+            return drawn;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Optional<BankQuestionDto> get(Long id) {
+        lock.readLock().lock();
+        try {
+            return Optional.ofNullable(questions.get(id));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<BankQuestionDto> snapshot() {
+        lock.readLock().lock();
+        try {
+            return new ArrayList<>(questions.values());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return questions.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /* ---------------- REFRESH ---------------- */
+
+    public void put(Question question) {
+        put(BankQuestionDto.from(question));
+    }
+
+    public void put(BankQuestionDto question) {
+        lock.writeLock().lock();
+        try {
+            BankQuestionDto previous = questions.put(question.id(), question);
+            if (previous != null) {
+                forEachPool(previous, pool -> pool.remove(previous.id()));
+            }
+            forEachPool(question, pool -> pool.add(question.id()));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            BankQuestionDto previous = questions.remove(id);
+            if (previous != null) {
+                forEachPool(previous, pool -> pool.remove(id));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void clear() {
+        lock.writeLock().lock();
+        try {
+            questions.clear();
+            pools.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /* ---------------- HELPERS ---------------- */
+
+    private void forEachPool(BankQuestionDto q, Consumer<Pool> action) {
+        String topic = normalize(q.topic());
+        String difficulty = normalize(q.difficulty());
+        Set<String> keys = new LinkedHashSet<>(List.of(
+                poolKey(topic, difficulty),
+                poolKey(topic, ANY),
+                poolKey(ANY, difficulty),
+                poolKey(ANY, ANY)
+        ));
+        for (String key : keys) {
+            action.accept(pools.computeIfAbsent(key, k -> new Pool()));
+        }
+    }
+
+    private static String normalize(String value) {
+        return (value == null || value.isBlank() || value.equalsIgnoreCase("ALL")) ? ANY : value;
+    }
+
+    private static String poolKey(String topic, String difficulty) {
+        return topic + "|" + difficulty;
+    }
+
+    /**
+     * Dense array of question IDs. Sampling uses a sparse Fisher–Yates
+     * shuffle so the backing array is never copied or mutated by readers.
+     */
+    static final class Pool {
+        private long[] ids = new long[16];
+        private int size;
+
+        void add(long id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+
+        void remove(long id) {
+            for (int i = 0; i < size; i++) {
+                if (ids[i] == id) {
+                    ids[i] = ids[--size];
+                    return;
+                }
+            }
+        }
+
+        long[] sample(int count) {
+            int k = Math.min(count, size);
+            long[] out = new long[k];
+            Map<Integer, Integer> swapped = new HashMap<>(k * 2);
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+
+            for (int i = 0; i < k; i++) {
+                int j = i + random.nextInt(size - i);
+                int atJ = swapped.getOrDefault(j, j);
+                int atI = swapped.getOrDefault(i, i);
+                swapped.put(j, atI);
+                out[i] = ids[atJ];
+            }
+            return out;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.pokeverse.play.quiz.service;
+
+import com.pokeverse.play.quiz.dto.BankQuestionDto;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Binary snapshot of the question bank on local disk, so a restarting node
+ * maps one file instead of reading every question from Postgres.
+ * <p>
+ * Layout: magic, format, data version (epoch millis of the newest
+ * {@code updated_at} included), count, then per question its id, text,
+ * answer, difficulty, topic and options. Strings are length-prefixed UTF-8,
+ * with -1 for null.
+ */
+@Slf4j
+@Service
+public class QuestionBankSnapshot {
+
+    private static final int MAGIC = 0x504B5142; // "PKQB"
+    private static final int FORMAT = 1;
+
+    private final Path path;
+
+    public QuestionBankSnapshot(@Value("${app.question-bank.snapshot-path:./data/question-bank.snapshot}") String path) {
+        this.path = Path.of(path);
+    }
+
+    /** A fully decoded snapshot and the data version it was written at. */
+    public record Contents(Instant version, List<BankQuestionDto> questions) {}
+
+    /**
+     * Decodes the whole snapshot before returning any of it, so a truncated or
+     * corrupt file yields nothing rather than part of the bank.
+     * Returns empty if there is no usable snapshot.
+     */
+    public Optional<Contents> read() {
+        if (!Files.isReadable(path)) return Optional.empty();
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            if (buf.getInt() != MAGIC || buf.getInt() != FORMAT) {
+                log.warn("Ignoring question bank snapshot {} with unknown format", path);
+                return Optional.empty();
+            }
+            Instant version = Instant.ofEpochMilli(buf.getLong());
+            int count = buf.getInt();
+            List<BankQuestionDto> questions = new ArrayList<>(count);
+
+            for (int i = 0; i < count; i++) {
+                long id = buf.getLong();
+                String question = readString(buf);
+                String answer = readString(buf);
+                String difficulty = readString(buf);
+                String topic = readString(buf);
+                int optionCount = buf.getInt();
+                List<String> options = new ArrayList<>(optionCount);
+                for (int o = 0; o < optionCount; o++) {
+                    options.add(readString(buf));
+                }
+                questions.add(new BankQuestionDto(id, question, Collections.unmodifiableList(options), answer, difficulty, topic));
+            }
+            return Optional.of(new Contents(version, questions));
+        } catch (Exception e) {
+            log.warn("Ignoring unreadable question bank snapshot {}: {}", path, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    public void write(Collection<BankQuestionDto> questions, Instant version) {
+        try {
+            Path parent = path.toAbsolutePath().getParent();
+            if (parent != null) Files.createDirectories(parent);
+            Path tmp = Files.createTempFile(parent, "question-bank", ".tmp");
+
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT);
+                out.writeLong(version.toEpochMilli());
+                out.writeInt(questions.size());
+                for (BankQuestionDto q : questions) {
+                    out.writeLong(q.id());
+                    writeString(out, q.question());
+                    writeString(out, q.answer());
+                    writeString(out, q.difficulty());
+                    writeString(out, q.topic());
+                    out.writeInt(q.options().size());
+                    for (String option : q.options()) {
+                        writeString(out, option);
+                    }
+                }
+            }
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.info("Wrote question bank snapshot with {} questions to {}", questions.size(), path);
+        } catch (IOException e) {
+            log.warn("Failed to write question bank snapshot {}: {}", path, e.getMessage());
+        }
+    }
+
+    private static String readString(ByteBuffer buf) {
+        int length = buf.getInt();
+        if (length < 0) return null;
+        byte[] bytes = new byte[length];
+        buf.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+}
@@ -0,0 +1,102 @@
+package com.pokeverse.play.quiz.service;
+
+import com.pokeverse.play.model.Question;
+import com.pokeverse.play.repository.QuestionRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the node-local {@link QuestionBank} and {@link QuestionSimilarityIndex}
+ * of every node in step with question writes made on any one of them.
+ * <p>
+ * The writing node updates its own copies and publishes the changed ids on
+ * {@code quiz:bank:changes} as {@code <nodeId>:<id>,<id>,...}; the others
+ * re-read those rows and put them, or remove the ones that no longer exist.
+ * Rows are re-read off the pub/sub thread, which also carries room frames.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class QuestionBankSync {
+
+    private static final String CHANNEL = "quiz:bank:changes";
+
+    private final QuestionBank questionBank;
+    private final QuestionSimilarityIndex similarityIndex;
+    private final QuestionRepository questionRepository;
+    private final StringRedisTemplate redis;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final RoomOwnershipService roomOwnershipService;
+
+    private final ExecutorService applier = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "question-bank-sync");
+        t.setDaemon(true);
+        return t;
+    });
+
+    @PostConstruct
+    public void init() {
+        listenerContainer.addMessageListener(
+                (message, pattern) -> receive(new String(message.getBody())), new ChannelTopic(CHANNEL));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        applier.shutdown();
+    }
+
+    /** Tells the other nodes that these questions were added, updated or deleted. */
+    public void changed(Collection<Long> ids) {
+        if (ids.isEmpty()) return;
+        String message = roomOwnershipService.nodeId() + ":"
+                + ids.stream().map(String::valueOf).collect(Collectors.joining(","));
+        try {
+            redis.convertAndSend(CHANNEL, message);
+        } catch (Exception e) {
+            // Other nodes catch up at their next boot; a resumed room reads missing questions itself
+            log.error("Failed to announce {} question changes: {}", ids.size(), e.getMessage());
+        }
+    }
+
+    private void receive(String message) {
+        int sep = message.indexOf(':');
+        if (sep < 0 || message.substring(0, sep).equals(roomOwnershipService.nodeId())) return;
+
+        List<Long> ids;
+        try {
+            ids = Arrays.stream(message.substring(sep + 1).split(",")).map(Long::valueOf).toList();
+        } catch (NumberFormatException e) {
+            log.error("Dropping malformed question change message: {}", message);
+            return;
+        }
+        applier.execute(() -> apply(ids));
+    }
+
+    private void apply(List<Long> ids) {
+        try {
+            Set<Long> gone = new HashSet<>(ids);
+            for (Question q : questionRepository.findAllById(ids)) {
+                gone.remove(q.getId());
+                questionBank.put(q);
+                similarityIndex.add(q.getId(), q.getQuestion());
+            }
+            for (Long id : gone) {
+                questionBank.remove(id);
+                similarityIndex.remove(id);
+            }
+        } catch (Exception e) {
+            log.error("Failed to apply {} question changes: {}", ids.size(), e.getMessage());
+        }
+    }
+}
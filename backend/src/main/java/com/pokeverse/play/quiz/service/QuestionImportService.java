@@ -0,0 +1,288 @@
+package com.pokeverse.play.quiz.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pokeverse.play.quiz.dto.BankQuestionDto;
+import com.pokeverse.play.quiz.dto.QuestionDto;
+import com.pokeverse.play.quiz.dto.QuestionImportErrorDto;
+import com.pokeverse.play.quiz.dto.QuestionImportResultDto;
+import com.pokeverse.play.quiz.dto.SimilarQuestionDto;
+import com.pokeverse.play.quiz.utils.ErrorUtil;
+import com.pokeverse.play.quiz.utils.QuestionTextUtil;
+import com.pokeverse.play.quiz.utils.Validate;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * Streams NDJSON or CSV uploads into the questions table. Rows are parsed one
+ * line at a time and written in JDBC batches, so only one batch is held in memory.
+ * <p>
+ * CSV rows are {@code question,options,answer,topic,difficulty} with a header line
+ * and options separated by {@code |}.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class QuestionImportService {
+
+    public static final String NDJSON = "application/x-ndjson";
+    public static final String CSV = "text/csv";
+
+    private static final int BATCH_SIZE = 500;
+    private static final int MAX_REPORTED_ERRORS = 100;
+
+    private static final String NEXT_IDS =
+            "SELECT nextval(pg_get_serial_sequence('questions', 'id')) FROM generate_series(1, ?)";
+    private static final String INSERT_QUESTION = """
+            INSERT INTO questions (id, question, question_hash, options, answer, difficulty, topic, created_at, updated_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)
+            ON CONFLICT (question_hash) DO NOTHING
+            """;
+    private static final String WRITTEN_IDS = "SELECT id FROM questions WHERE id = ANY(?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Validate validate;
+    private final ErrorUtil errorUtil;
+    private final QuestionBank questionBank;
+    private final QuestionSimilarityIndex similarityIndex;
+    private final QuestionBankSync questionBankSync;
+
+    public ResponseEntity<?> importQuestions(InputStream body, String contentType) {
+        boolean csv;
+        if (contentType != null && contentType.startsWith(CSV)) {
+            csv = true;
+        } else if (contentType != null && contentType.startsWith(NDJSON)) {
+            csv = false;
+        } else {
+            return errorUtil.badRequest("Content-Type must be " + NDJSON + " or " + CSV);
+        }
+
+        long started = System.nanoTime();
+        ImportProgress progress = new ImportProgress();
+        Set<Long> seenHashes = new HashSet<>();
+        List<ImportRow> batch = new ArrayList<>(BATCH_SIZE);
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            long lineNo = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNo++;
+                if (line.isBlank() || (csv && lineNo == 1)) continue;
+                progress.rows++;
+
+                QuestionDto dto;
+                try {
+                    dto = csv ? parseCsvRow(line) : objectMapper.readValue(line, QuestionDto.class);
+                } catch (Exception e) {
+                    progress.reject(lineNo, "Malformed row: " + e.getMessage());
+                    continue;
+                }
+
+                String validationError = validate.validateQuestionDto(dto);
+                if (validationError != null) {
+                    progress.reject(lineNo, validationError);
+                    continue;
+                }
+
+                if (!seenHashes.add(QuestionTextUtil.hash(dto.question()))) {
+                    progress.duplicate(lineNo, "Duplicate of an earlier row in this upload");
+                    continue;
+                }
+
+                // Imported anyway and reported for review; templated questions match closely
+                Long nearDuplicateOf = similarityIndex.findNearDuplicate(dto.question())
+                        .map(SimilarQuestionDto::questionId)
+                        .orElse(null);
+
+                batch.add(new ImportRow(lineNo, dto, nearDuplicateOf));
+                if (batch.size() == BATCH_SIZE) {
+                    flush(batch, progress);
+                    batch.clear();
+                }
+            }
+            flush(batch, progress);
+        } catch (IOException e) {
+            log.error("Question import aborted after {} rows: {}", progress.rows, e.getMessage());
+            return ResponseEntity.status(500).body("Internal Server Error: " + e.getMessage());
+        }
+
+        QuestionImportResultDto result = progress.toResult(System.nanoTime() - started);
+        log.info("Imported {} of {} questions ({} duplicates, {} near-duplicates, {} rejected) at {} rows/s",
+                result.inserted(), result.rows(), result.duplicates(), result.nearDuplicates(), result.rejected(),
+                Math.round(result.rowsPerSecond()));
+        return ResponseEntity.ok(result);
+    }
+
+    /* ---------------- BATCH WRITE ---------------- */
+
+    private void flush(List<ImportRow> rows, ImportProgress progress) {
+        if (rows.isEmpty()) return;
+
+        List<BankQuestionDto> inserted = transactionTemplate.execute(status -> {
+            // Pre-allocate IDs so written rows can be added to the bank without a read back
+            List<Long> ids = jdbcTemplate.queryForList(NEXT_IDS, Long.class, rows.size());
+            Timestamp now = Timestamp.from(Instant.now());
+
+            jdbcTemplate.batchUpdate(INSERT_QUESTION, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    QuestionDto q = rows.get(i).dto();
+                    ps.setLong(1, ids.get(i));
+                    ps.setString(2, q.question());
+                    ps.setLong(3, QuestionTextUtil.hash(q.question()));
+                    ps.setArray(4, ps.getConnection().createArrayOf("text", q.options().toArray()));
+                    ps.setString(5, q.answer());
+                    ps.setString(6, q.difficulty());
+                    ps.setString(7, q.topic());
+                    ps.setTimestamp(8, now);
+                    ps.setTimestamp(9, now);
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return rows.size();
+                }
+            });
+
+            // Batch update counts can't tell skipped rows apart: rewritten batches report
+            // SUCCESS_NO_INFO. The pre-allocated ids are ours alone, so a row was
+            // written iff its id is now in the table.
+            Set<Long> writtenIds = new HashSet<>(
+                    jdbcTemplate.queryForList(WRITTEN_IDS, Long.class, (Object) ids.toArray(new Long[0])));
+
+            List<BankQuestionDto> written = new ArrayList<>(rows.size());
+            for (int i = 0; i < rows.size(); i++) {
+                ImportRow row = rows.get(i);
+                if (!writtenIds.contains(ids.get(i))) {
+                    progress.duplicate(row.lineNo(), "Question already exists");
+                    continue;
+                }
+                if (row.nearDuplicateOf() != null) {
+                    progress.flag(row.lineNo(), "Imported; near-duplicate of question " + row.nearDuplicateOf());
+                }
+                QuestionDto q = row.dto();
+                written.add(new BankQuestionDto(ids.get(i), q.question(), List.copyOf(q.options()),
+                        q.answer(), q.difficulty(), q.topic()));
+            }
+            return written;
+        });
+
+        if (inserted != null) {
+            for (BankQuestionDto q : inserted) {
+                questionBank.put(q);
+                similarityIndex.add(q.id(), q.question());
+            }
+            questionBankSync.changed(inserted.stream().map(BankQuestionDto::id).toList());
+            progress.inserted += inserted.size();
+        }
+    }
+
+    /* ---------------- CSV ---------------- */
+
+    private static QuestionDto parseCsvRow(String line) {
+        List<String> fields = splitCsv(line);
+        if (fields.size() != 5) {
+            throw new IllegalArgumentException("expected 5 columns, found " + fields.size());
+        }
+        List<String> options = Arrays.stream(fields.get(1).split("\\|"))
+                .map(String::trim)
+                .filter(o -> !o.isEmpty())
+                .toList();
+        return new QuestionDto(null, fields.get(0), options, fields.get(2), fields.get(3), fields.get(4));
+    }
+
+    private static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>(5);
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(current.toString().trim());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        if (quoted) throw new IllegalArgumentException("unterminated quote");
+        fields.add(current.toString().trim());
+        return fields;
+    }
+
+    /* ---------------- PROGRESS ---------------- */
+
+    private record ImportRow(long lineNo, QuestionDto dto, Long nearDuplicateOf) {}
+
+    private static final class ImportProgress {
+        private long rows;
+        private long inserted;
+        private long duplicates;
+        private long nearDuplicates;
+        private long rejected;
+        private final List<QuestionImportErrorDto> errors = new ArrayList<>();
+
+        void reject(long lineNo, String message) {
+            rejected++;
+            report(lineNo, message);
+        }
+
+        void duplicate(long lineNo, String message) {
+            duplicates++;
+            report(lineNo, message);
+        }
+
+        void flag(long lineNo, String message) {
+            nearDuplicates++;
+            report(lineNo, message);
+        }
+
+        private void report(long lineNo, String message) {
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new QuestionImportErrorDto(lineNo, message));
+            }
+        }
+
+        QuestionImportResultDto toResult(long elapsedNanos) {
+            long elapsedMs = Math.max(1, elapsedNanos / 1_000_000);
+            return QuestionImportResultDto.builder()
+                    .rows(rows)
+                    .inserted(inserted)
+                    .duplicates(duplicates)
+                    .nearDuplicates(nearDuplicates)
+                    .rejected(rejected)
+                    .elapsedMs(elapsedMs)
+                    .rowsPerSecond(rows * 1000.0 / elapsedMs)
+                    .errors(errors)
+                    .build();
+        }
+    }
+}
@@ -1,32 +1,57 @@
 package com.pokeverse.play.quiz.service;
 
 import com.pokeverse.play.model.Question;
+import com.pokeverse.play.model.QuestionStats;
+import com.pokeverse.play.quiz.dto.BankQuestionDto;
+import com.pokeverse.play.quiz.dto.QuestionDifficultyReportDto;
 import com.pokeverse.play.quiz.dto.QuestionDto;
+import com.pokeverse.play.quiz.dto.QuestionStatsDto;
+import com.pokeverse.play.quiz.dto.SimilarQuestionDto;
 import com.pokeverse.play.quiz.utils.ErrorUtil;
+import com.pokeverse.play.quiz.utils.QuestionTextUtil;
 import com.pokeverse.play.quiz.utils.Validate;
 import com.pokeverse.play.repository.QuestionRepository;
+import com.pokeverse.play.repository.QuestionStatsRepository;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
 import java.util.Optional;
 
+@Slf4j
 @Service
 public class QuestionService {
 
+    // Set on add/update responses whose question looks like an existing one; see GET /duplicates
+    public static final String NEAR_DUPLICATE_HEADER = "X-Near-Duplicate-Of";
+
     private final QuestionRepository questionRepository;
+    private final QuestionBank questionBank;
+    private final QuestionSimilarityIndex similarityIndex;
+    private final QuestionBankSync questionBankSync;
+    private final QuestionStatsRepository questionStatsRepository;
     private final Validate validate;
     private final ErrorUtil errorUtil;
     private final String ADMIN_ID;
     private final String ADMIN_PASSWORD;
 
-    public QuestionService(QuestionRepository questionRepository, Validate validate, ErrorUtil errorUtil,
+    public QuestionService(QuestionRepository questionRepository, QuestionBank questionBank,
+                           QuestionSimilarityIndex similarityIndex, QuestionBankSync questionBankSync,
+                           QuestionStatsRepository questionStatsRepository,
+                           Validate validate, ErrorUtil errorUtil,
                            @Value("${admin.id}") String adminId,
                            @Value("${admin.password}") String adminPassword) {
         this.ADMIN_ID = adminId;
         this.ADMIN_PASSWORD = adminPassword;
         this.questionRepository = questionRepository;
+        this.questionBank = questionBank;
+        this.similarityIndex = similarityIndex;
+        this.questionBankSync = questionBankSync;
+        this.questionStatsRepository = questionStatsRepository;
         this.validate = validate;
         this.errorUtil = errorUtil;
     }
@@ -37,12 +62,14 @@ public class QuestionService {
             return errorUtil.badRequest(validationError);
         }
 
-        Question question = questionRepository.findByQuestion(questionDto.question());
-        if (question != null) {
+        if (questionRepository.existsByQuestionHash(QuestionTextUtil.hash(questionDto.question()))) {
             return errorUtil.badRequest("Question already exists");
         }
 
-        question = Question.builder()
+        // Templated questions match closely but legitimately: store them and flag the match for review
+        Optional<SimilarQuestionDto> nearDuplicate = similarityIndex.findNearDuplicate(questionDto.question());
+
+        Question question = Question.builder()
                 .question(questionDto.question())
                 .options(questionDto.options())
                 .answer(questionDto.answer())
@@ -57,8 +84,11 @@ public class QuestionService {
             System.out.println(question.getQuestion());
             return ResponseEntity.status(500).body("Internal Server Error: " + e.getMessage());
         }
+        questionBank.put(savedQuestion);
+        similarityIndex.add(savedQuestion.getId(), savedQuestion.getQuestion());
+        questionBankSync.changed(List.of(savedQuestion.getId()));
 
-        return ResponseEntity.ok(savedQuestion);
+        return withNearDuplicate(savedQuestion, nearDuplicate);
     }
 
     public ResponseEntity<?> updateQuestion(QuestionDto questionDto) {
@@ -76,6 +106,13 @@ public class QuestionService {
             return errorUtil.badRequest(validationError);
         }
 
+        if (questionRepository.existsByQuestionHashAndIdNot(QuestionTextUtil.hash(questionDto.question()), questionDto.id())) {
+            return errorUtil.badRequest("Question already exists");
+        }
+
+        Optional<SimilarQuestionDto> nearDuplicate =
+                similarityIndex.findNearDuplicate(questionDto.question(), questionDto.id());
+
         Question question = existingQuestionOpt.get();
         question.setQuestion(questionDto.question());
         question.setOptions(questionDto.options());
@@ -84,7 +121,22 @@ public class QuestionService {
         question.setDifficulty(questionDto.difficulty());
 
         Question updatedQuestion = questionRepository.save(question);
-        return ResponseEntity.ok(updatedQuestion);
+        questionBank.put(updatedQuestion);
+        similarityIndex.add(updatedQuestion.getId(), updatedQuestion.getQuestion());
+        questionBankSync.changed(List.of(updatedQuestion.getId()));
+        return withNearDuplicate(updatedQuestion, nearDuplicate);
+    }
+
+    private ResponseEntity<?> withNearDuplicate(Question question, Optional<SimilarQuestionDto> nearDuplicate) {
+        if (nearDuplicate.isEmpty()) {
+            return ResponseEntity.ok(question);
+        }
+        SimilarQuestionDto match = nearDuplicate.get();
+        log.info("Question {} is a near-duplicate of question {} ({})",
+                question.getId(), match.questionId(), match.similarity());
+        return ResponseEntity.ok()
+                .header(NEAR_DUPLICATE_HEADER, String.valueOf(match.questionId()))
+                .body(question);
     }
 
     public ResponseEntity<?> deleteQuestion(Long id) {
@@ -92,9 +144,37 @@ public class QuestionService {
             return errorUtil.notFound("Question not found");
         }
         questionRepository.deleteById(id);
+        questionBank.remove(id);
+        similarityIndex.remove(id);
+        questionBankSync.changed(List.of(id));
         return ResponseEntity.ok("Question deleted successfully");
     }
 
+    public ResponseEntity<?> getDuplicateClusters() {
+        return ResponseEntity.ok(similarityIndex.duplicateClusters());
+    }
+
+    public ResponseEntity<?> getDifficultyReport(String topic, int limit, long minAttempts) {
+        if (limit <= 0) {
+            return errorUtil.badRequest("Limit must be greater than 0");
+        }
+        String topicFilter = (topic == null || topic.isBlank() || topic.equalsIgnoreCase("ALL")) ? null : topic;
+        PageRequest page = PageRequest.of(0, limit);
+
+        return ResponseEntity.ok(new QuestionDifficultyReportDto(
+                topicFilter,
+                toStatsDtos(questionStatsRepository.findHardest(topicFilter, minAttempts, page)),
+                toStatsDtos(questionStatsRepository.findEasiest(topicFilter, minAttempts, page))
+        ));
+    }
+
+    private List<QuestionStatsDto> toStatsDtos(List<QuestionStats> stats) {
+        return stats.stream()
+                .map(s -> QuestionStatsDto.from(s,
+                        questionBank.get(s.getQuestionId()).map(BankQuestionDto::question).orElse(null)))
+                .toList();
+    }
+
     public ResponseEntity<?> getQuestionById(Long id) {
         return questionRepository.findById(id)
                 .<ResponseEntity<?>>map(ResponseEntity::ok)
@@ -0,0 +1,239 @@
+package com.pokeverse.play.quiz.service;
+
+import com.pokeverse.play.quiz.dto.BankQuestionDto;
+import com.pokeverse.play.quiz.dto.DuplicateClusterDto;
+import com.pokeverse.play.quiz.dto.SimilarQuestionDto;
+import com.pokeverse.play.quiz.utils.QuestionTextUtil;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Near-duplicate index over question text: character shingles, MinHash
+ * signatures and LSH banding. Candidates sharing any band bucket are verified
+ * against the estimated Jaccard similarity of their signatures, which are kept
+ * per question so a query only computes the signature of its own text.
+ * <p>
+ * Matches are advisory: templated questions ("Which type is X weak to?")
+ * legitimately score high, so callers flag them for review instead of
+ * refusing them.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class QuestionSimilarityIndex {
+
+    public static final double DUPLICATE_THRESHOLD = 0.8;
+
+    private static final int SHINGLE_SIZE = 4;
+    private static final int BANDS = 16;
+    private static final int ROWS_PER_BAND = 4;
+    private static final int NUM_HASHES = BANDS * ROWS_PER_BAND;
+    private static final long[] SEEDS = new Random(0x5EED_CAFEL).longs(NUM_HASHES).toArray();
+
+    private final QuestionBank questionBank;
+
+    private final Map<Long, int[]> signaturesById = new HashMap<>();
+    private final List<Map<Integer, List<Long>>> buckets = new ArrayList<>(BANDS);
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @PostConstruct
+    public void load() {
+        for (int b = 0; b < BANDS; b++) {
+            buckets.add(new HashMap<>());
+        }
+        long started = System.currentTimeMillis();
+        List<BankQuestionDto> all = questionBank.snapshot();
+        all.forEach(q -> add(q.id(), q.question()));
+        log.info("Similarity index built for {} questions in {} ms",
+                all.size(), System.currentTimeMillis() - started);
+    }
+
+    /* ---------------- QUERY ---------------- */
+
+    public Optional<SimilarQuestionDto> findNearDuplicate(String text) {
+        return findNearDuplicate(text, null);
+    }
+
+    /**
+     * Best match at or above {@link #DUPLICATE_THRESHOLD}, ignoring {@code excludeId}
+     * so an update does not match the question it replaces.
+     */
+    public Optional<SimilarQuestionDto> findNearDuplicate(String text, Long excludeId) {
+        int[] signature = signature(text);
+        int[] keys = bandKeys(signature);
+
+        lock.readLock().lock();
+        try {
+            Set<Long> candidates = new HashSet<>();
+            for (int b = 0; b < BANDS; b++) {
+                List<Long> bucket = buckets.get(b).get(keys[b]);
+                if (bucket != null) candidates.addAll(bucket);
+            }
+            candidates.remove(excludeId);
+
+            Long bestId = null;
+            double best = 0;
+            for (Long id : candidates) {
+                double similarity = similarity(signature, signaturesById.get(id));
+                if (similarity >= DUPLICATE_THRESHOLD && (bestId == null || similarity > best)) {
+                    bestId = id;
+                    best = similarity;
+                }
+            }
+            if (bestId == null) return Optional.empty();
+            return Optional.of(new SimilarQuestionDto(
+                    bestId, questionBank.get(bestId).map(BankQuestionDto::question).orElse(null), best));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Groups every question in the bank with its near-duplicates. */
+    public List<DuplicateClusterDto> duplicateClusters() {
+        lock.readLock().lock();
+        try {
+            Map<Long, Long> parent = new HashMap<>();
+
+            for (Map<Integer, List<Long>> band : buckets) {
+                for (List<Long> bucket : band.values()) {
+                    for (int i = 0; i < bucket.size(); i++) {
+                        for (int j = i + 1; j < bucket.size(); j++) {
+                            Long a = bucket.get(i);
+                            Long b = bucket.get(j);
+                            if (find(parent, a).equals(find(parent, b))) continue;
+
+                            if (similarity(signaturesById.get(a), signaturesById.get(b)) >= DUPLICATE_THRESHOLD) {
+                                parent.put(find(parent, a), find(parent, b));
+                            }
+                        }
+                    }
+                }
+            }
+
+            Map<Long, List<Long>> groups = new HashMap<>();
+            for (Long id : parent.keySet()) {
+                groups.computeIfAbsent(find(parent, id), k -> new ArrayList<>()).add(id);
+            }
+
+            List<DuplicateClusterDto> clusters = new ArrayList<>();
+            for (List<Long> ids : groups.values()) {
+                if (ids.size() < 2) continue;
+                Collections.sort(ids);
+                int[] first = signaturesById.get(ids.getFirst());
+                clusters.add(new DuplicateClusterDto(ids.stream()
+                        .map(id -> new SimilarQuestionDto(
+                                id,
+                                questionBank.get(id).map(BankQuestionDto::question).orElse(null),
+                                similarity(first, signaturesById.get(id))))
+                        .toList()));
+            }
+            clusters.sort(Comparator.comparingInt((DuplicateClusterDto c) -> c.questions().size()).reversed());
+            return clusters;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /* ---------------- REFRESH ---------------- */
+
+    public void add(Long id, String text) {
+        int[] signature = signature(text);
+        int[] keys = bandKeys(signature);
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+            signaturesById.put(id, signature);
+            for (int b = 0; b < BANDS; b++) {
+                buckets.get(b).computeIfAbsent(keys[b], k -> new ArrayList<>(1)).add(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeLocked(Long id) {
+        int[] signature = signaturesById.remove(id);
+        if (signature == null) return;
+
+        int[] keys = bandKeys(signature);
+        for (int b = 0; b < BANDS; b++) {
+            List<Long> bucket = buckets.get(b).get(keys[b]);
+            if (bucket == null) continue;
+            bucket.remove(id);
+            if (bucket.isEmpty()) buckets.get(b).remove(keys[b]);
+        }
+    }
+
+    /* ---------------- MINHASH ---------------- */
+
+    static int[] signature(String text) {
+        String s = QuestionTextUtil.normalize(text).replaceAll("[^\\p{L}\\p{N} ]", "");
+        int k = Math.max(1, Math.min(SHINGLE_SIZE, s.length()));
+
+        int[] signature = new int[NUM_HASHES];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+
+        for (int i = 0; i + k <= Math.max(s.length(), k); i++) {
+            int shingle = 0;
+            for (int c = i; c < i + k && c < s.length(); c++) {
+                shingle = 31 * shingle + s.charAt(c);
+            }
+            for (int h = 0; h < NUM_HASHES; h++) {
+                int value = (int) (mix(shingle ^ SEEDS[h]) >>> 33);
+                if (value < signature[h]) signature[h] = value;
+            }
+        }
+        return signature;
+    }
+
+    static double similarity(int[] a, int[] b) {
+        int equal = 0;
+        for (int i = 0; i < NUM_HASHES; i++) {
+            if (a[i] == b[i]) equal++;
+        }
+        return (double) equal / NUM_HASHES;
+    }
+
+    private static int[] bandKeys(int[] signature) {
+        int[] keys = new int[BANDS];
+        for (int b = 0; b < BANDS; b++) {
+            int key = b;
+            for (int r = 0; r < ROWS_PER_BAND; r++) {
+                key = 31 * key + signature[b * ROWS_PER_BAND + r];
+            }
+            keys[b] = key;
+        }
+        return keys;
+    }
+
+    // SplitMix64 finalizer
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static Long find(Map<Long, Long> parent, Long id) {
+        Long root = id;
+        while (true) {
+            Long next = parent.putIfAbsent(root, root);
+            if (next == null || next.equals(root)) return root;
+            root = next;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.pokeverse.play.quiz.service;
+
+import com.pokeverse.play.quiz.dto.BankQuestionDto;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-question answer counters kept in memory and rolled up into
+ * {@code question_stats} on a fixed interval, so difficulty reports never
+ * scan the attempts tables.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class QuestionStatsAggregator {
+
+    private static final long FLUSH_INTERVAL_MS = 10_000;
+    // Upper bounds of the answer-time histogram buckets; the last bucket is open
+    private static final long[] TIME_BUCKETS_MS = {2_000, 5_000, 10_000, 20_000, 30_000};
+
+    private static final String UPSERT = """
+            INSERT INTO question_stats (question_id, topic, attempts, correct, answer_time_sum_ms,
+                answers_under2s, answers_under5s, answers_under10s, answers_under20s, answers_under30s,
+                answers_over30s, updated_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            ON CONFLICT (question_id) DO UPDATE SET
+                topic = EXCLUDED.topic,
+                attempts = question_stats.attempts + EXCLUDED.attempts,
+                correct = question_stats.correct + EXCLUDED.correct,
+                answer_time_sum_ms = question_stats.answer_time_sum_ms + EXCLUDED.answer_time_sum_ms,
+                answers_under2s = question_stats.answers_under2s + EXCLUDED.answers_under2s,
+                answers_under5s = question_stats.answers_under5s + EXCLUDED.answers_under5s,
+                answers_under10s = question_stats.answers_under10s + EXCLUDED.answers_under10s,
+                answers_under20s = question_stats.answers_under20s + EXCLUDED.answers_under20s,
+                answers_under30s = question_stats.answers_under30s + EXCLUDED.answers_under30s,
+                answers_over30s = question_stats.answers_over30s + EXCLUDED.answers_over30s,
+                updated_at = EXCLUDED.updated_at
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final QuestionBank questionBank;
+
+    private final Map<Long, Counters> counters = new ConcurrentHashMap<>();
+
+    public void record(Long questionId, boolean correct, long answerTimeMs) {
+        if (questionId == null) return;
+
+        Counters c = counters.computeIfAbsent(questionId, id -> new Counters());
+        c.attempts.increment();
+        if (correct) c.correct.increment();
+        c.answerTimeSumMs.add(Math.max(0, answerTimeMs));
+        c.histogram[bucketOf(answerTimeMs)].increment();
+    }
+
+    @PreDestroy
+    @Scheduled(fixedDelay = FLUSH_INTERVAL_MS, initialDelay = FLUSH_INTERVAL_MS)
+    public void flush() {
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Object[]> rows = new ArrayList<>();
+
+        counters.forEach((questionId, c) -> {
+            long attempts = c.attempts.sumThenReset();
+            if (attempts == 0) return;
+
+            Object[] row = new Object[12];
+            row[0] = questionId;
+            row[1] = questionBank.get(questionId).map(BankQuestionDto::topic).orElse(null);
+            row[2] = attempts;
+            row[3] = c.correct.sumThenReset();
+            row[4] = c.answerTimeSumMs.sumThenReset();
+            for (int b = 0; b < c.histogram.length; b++) {
+                row[5 + b] = c.histogram[b].sumThenReset();
+            }
+            row[11] = now;
+            rows.add(row);
+        });
+
+        if (rows.isEmpty()) return;
+        try {
+            jdbcTemplate.batchUpdate(UPSERT, rows);
+            log.debug("Flushed answer stats for {} questions", rows.size());
+        } catch (Exception e) {
+            // The counters were already drained: put the rows back so the next flush retries them
+            rows.forEach(this::restore);
+            log.error("Failed to flush answer stats for {} questions, keeping them for the next flush: {}",
+                    rows.size(), e.getMessage());
+        }
+    }
+
+    private void restore(Object[] row) {
+        Counters c = counters.computeIfAbsent((Long) row[0], id -> new Counters());
+        c.attempts.add((Long) row[2]);
+        c.correct.add((Long) row[3]);
+        c.answerTimeSumMs.add((Long) row[4]);
+        for (int b = 0; b < c.histogram.length; b++) {
+            c.histogram[b].add((Long) row[5 + b]);
+        }
+    }
+
+    private static int bucketOf(long answerTimeMs) {
+        for (int b = 0; b < TIME_BUCKETS_MS.length; b++) {
+            if (answerTimeMs < TIME_BUCKETS_MS[b]) return b;
+        }
+        return TIME_BUCKETS_MS.length;
+    }
+
+    private static final class Counters {
+        private final LongAdder attempts = new LongAdder();
+        private final LongAdder correct = new LongAdder();
+        private final LongAdder answerTimeSumMs = new LongAdder();
+        private final LongAdder[] histogram = new LongAdder[TIME_BUCKETS_MS.length + 1];
+
+        private Counters() {
+            for (int b = 0; b < histogram.length; b++) {
+                histogram[b] = new LongAdder();
+            }
+        }
+    }
+}
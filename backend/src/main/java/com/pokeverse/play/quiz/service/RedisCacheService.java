@@ -43,6 +43,26 @@ public class RedisCacheService {
         }
     }
 
+    /** Stores an already serialized JSON document as is, so reads can hand it out without decoding. */
+    public void setJson(String prefix, Long id, String json, Duration ttl) {
+        String key = buildKey(prefix, id);
+        try {
+            stringRedisTemplate.opsForValue().set(key, json, ttl);
+        } catch (Exception e) {
+            System.err.println("[RedisCacheService] Failed to set JSON for key: " + key + " | Error: " + e.getMessage());
+        }
+    }
+
+    public Optional<String> getJson(String prefix, Long id) {
+        String key = buildKey(prefix, id);
+        try {
+            return Optional.ofNullable(stringRedisTemplate.opsForValue().get(key));
+        } catch (Exception e) {
+            System.err.println("[RedisCacheService] Failed to get JSON for key: " + key + " | Error: " + e.getMessage());
+            return Optional.empty();
+        }
+    }
+
     public <T> Optional<T> get(String prefix, Long id, Class<T> clazz) {
         String key = buildKey(prefix, id);
         try {
@@ -1,12 +1,39 @@
 package com.pokeverse.play.quiz.service;
 
+import com.pokeverse.play.quiz.dto.AnswerSubmissionDto;
+import com.pokeverse.play.quiz.dto.PlayerProgressDto;
+import com.pokeverse.play.quiz.dto.RoomDeckEntryDto;
+import com.pokeverse.play.quiz.dto.RoomGameStateDto;
+import com.pokeverse.play.quiz.dto.RoomStandingDto;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.connection.zset.Tuple;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
-
+import java.util.*;
+
+/**
+ * Game state of a running room, kept in one Redis hash ({@code quiz:room:{<id>}})
+ * with a single TTL. Every transition is one round trip: round start and
+ * answers are scripts, the deck is one HSET and cleanup is one DEL.
+ * <p>
+ * Fields: {@code activeQuestion}, {@code questionStart}, {@code questionDeadline},
+ * {@code answered}, {@code totalPlayers}, {@code round}, {@code fence}, {@code topic},
+ * {@code deck:<round>} and {@code answer:<multiplayerQuestionId>:<userId>}.
+ * <p>
+ * The live leaderboard is a sorted set of userId by score next to it, with a
+ * players hash ({@code player:}, {@code name:}, {@code avatar:}, {@code streak:},
+ * {@code best:}, {@code correct:}, {@code answers:}, {@code time:} per userId).
+ * Both outlive the game state so results can be read from them.
+ * All keys of a room share a hash tag, so the scripts also work on a cluster.
+ */
 @Slf4j
 @Service
 @RequiredArgsConstructor
@@ -16,133 +43,314 @@ public class RedisRoomAndQuestionService {
 
     private static final Duration ROOM_TTL = Duration.ofMinutes(10);
     private static final Duration QUESTION_TTL = Duration.ofSeconds(30);
-    private static final Duration LOCK_TTL = Duration.ofSeconds(5);
+    private static final Duration LEADERBOARD_TTL = Duration.ofHours(1);
 
-    /* ---------------- KEYS ---------------- */
+    private static final String ACTIVE_QUESTION = "activeQuestion";
+    private static final String QUESTION_DEADLINE = "questionDeadline";
+    private static final String ROUND = "round";
+    private static final String TOPIC = "topic";
+    private static final String DECK_PREFIX = "deck:";
+    private static final String ANSWER_PREFIX = "answer:";
 
-    private String activeQuestionKey(Long roomId) {
-        return "quiz:room:" + roomId + ":activeQuestion";
-    }
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> SUBMIT_ANSWER =
+            RedisScript.of(new ClassPathResource("redis/submit_answer.lua"), List.class);
+    private static final RedisScript<Long> START_ROUND =
+            RedisScript.of(new ClassPathResource("redis/start_round.lua"), Long.class);
 
-    private String questionStartKey(Long roomId) {
-        return "quiz:room:" + roomId + ":questionStart";
-    }
+    /* ---------------- KEYS ---------------- */
 
-    private String answeredKey(Long roomId) {
-        return "quiz:room:" + roomId + ":answeredCount";
+    private String roomKey(Long roomId) {
+        return "quiz:room:{" + roomId + "}";
     }
 
-    private String totalPlayersKey(Long roomId) {
-        return "quiz:room:" + roomId + ":totalPlayers";
+    private String leaderboardKey(Long roomId) {
+        return roomKey(roomId) + ":leaderboard";
     }
 
-    private String roundKey(Long roomId) {
-        return "quiz:room:" + roomId + ":round";
+    private String playersKey(Long roomId) {
+        return roomKey(roomId) + ":players";
     }
 
-    private String lockKey(Long roomId) {
-        return "quiz:room:" + roomId + ":lock";
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
     }
 
-    /* ---------------- LOCK ---------------- */
-
-    public boolean acquireLock(Long roomId) {
-        Boolean ok = redis.opsForValue()
-                .setIfAbsent(lockKey(roomId), "1", LOCK_TTL);
-        return Boolean.TRUE.equals(ok);
+    private static long parseLong(Object v) {
+        return v == null ? 0 : Long.parseLong(v.toString());
     }
 
-    public void releaseLock(Long roomId) {
-        redis.delete(lockKey(roomId));
+    /* ---------------- ROUND START ---------------- */
+
+    /**
+     * Makes {@code multiplayerQuestionId} the active question, stamps its start
+     * with the Redis server clock, resets the answer state and bumps the round.
+     * Returns the new round number, or -1 if {@code fencingToken} is older than
+     * the one the room was last advanced with. Refreshes the leaderboard's TTL
+     * along with the room's.
+     */
+    public long startRound(Long roomId, Long multiplayerQuestionId, int totalPlayers, long fencingToken) {
+        Long round = redis.execute(
+                START_ROUND,
+                List.of(roomKey(roomId), leaderboardKey(roomId), playersKey(roomId)),
+                multiplayerQuestionId.toString(),
+                String.valueOf(totalPlayers),
+                String.valueOf(QUESTION_TTL.toMillis()),
+                String.valueOf(ROOM_TTL.toMillis()),
+                String.valueOf(fencingToken),
+                String.valueOf(LEADERBOARD_TTL.toMillis())
+        );
+        return round == null ? 0 : round;
     }
 
-    /* ---------------- ACTIVE QUESTION ---------------- */
+    /* ---------------- PLAYER ANSWER STATE ---------------- */
 
-    public void setActiveQuestion(Long roomId, Long questionId) {
-        redis.opsForValue().set(
-                activeQuestionKey(roomId),
-                questionId.toString(),
-                QUESTION_TTL
+    /**
+     * Records one answer in a single round trip: checks the question is still
+     * active, dedupes the player, stores the option, measures elapsed time on
+     * the Redis server clock and bumps the answered count. A correct answer
+     * scores {@code maxPoints} minus {@code penaltyPerSecond} per whole second
+     * on the leaderboard.
+     */
+    public AnswerSubmissionDto submitAnswer(Long roomId, Long multiplayerQuestionId, Long userId,
+                                            String selectedOption, boolean correct,
+                                            int maxPoints, int penaltyPerSecond) {
+        List<?> result = redis.execute(
+                SUBMIT_ANSWER,
+                List.of(roomKey(roomId), leaderboardKey(roomId), playersKey(roomId)),
+                multiplayerQuestionId.toString(),
+                userId.toString(),
+                selectedOption == null ? "" : selectedOption,
+                correct ? "1" : "0",
+                String.valueOf(maxPoints),
+                String.valueOf(penaltyPerSecond)
         );
-    }
+        if (result == null || result.isEmpty()) {
+            throw new IllegalStateException("Answer script returned no result for roomId=" + roomId);
+        }
 
-    public void setActiveQuestionStart(Long roomId) {
-        redis.opsForValue().set(
-                questionStartKey(roomId),
-                String.valueOf(System.currentTimeMillis()),
-                QUESTION_TTL
+        long outcome = ((Number) result.get(0)).longValue();
+        if (outcome == 0) {
+            return new AnswerSubmissionDto(AnswerSubmissionDto.Outcome.EXPIRED, 0, 0, 0, 0, PlayerProgressDto.NONE);
+        }
+        if (outcome < 0) {
+            return new AnswerSubmissionDto(AnswerSubmissionDto.Outcome.DUPLICATE, 0, 0, 0, 0, PlayerProgressDto.NONE);
+        }
+        return new AnswerSubmissionDto(
+                AnswerSubmissionDto.Outcome.ACCEPTED,
+                ((Number) result.get(1)).longValue(),
+                ((Number) result.get(2)).longValue(),
+                ((Number) result.get(3)).intValue(),
+                ((Number) result.get(4)).intValue(),
+                new PlayerProgressDto(
+                        ((Number) result.get(5)).intValue(),
+                        ((Number) result.get(6)).intValue(),
+                        ((Number) result.get(7)).intValue(),
+                        ((Number) result.get(8)).intValue(),
+                        ((Number) result.get(9)).intValue(),
+                        ((Number) result.get(10)).longValue()
+                )
         );
     }
 
-    public Long getActiveQuestion(Long roomId) {
-        String v = redis.opsForValue().get(activeQuestionKey(roomId));
-        return v == null ? null : Long.parseLong(v);
-    }
+    /* ---------------- DECK ---------------- */
 
-    public boolean hasActiveQuestion(Long roomId) {
-        return Boolean.TRUE.equals(redis.hasKey(activeQuestionKey(roomId)));
-    }
+    public void initDeck(Long roomId, String topic, List<RoomDeckEntryDto> deck) {
+        byte[] key = bytes(roomKey(roomId));
+        Map<byte[], byte[]> fields = new HashMap<>();
+        fields.put(bytes(TOPIC), bytes(topic == null ? "" : topic));
+        for (int i = 0; i < deck.size(); i++) {
+            RoomDeckEntryDto e = deck.get(i);
+            fields.put(bytes(DECK_PREFIX + (i + 1)), bytes(e.multiplayerQuestionId() + ":" + e.questionId()));
+        }
 
-    public Long getActiveQuestionStart(Long roomId) {
-        String v = redis.opsForValue().get(questionStartKey(roomId));
-        return v == null ? 0L : Long.parseLong(v);
+        // DEL + HSET + PEXPIRE in one pipelined round trip
+        redis.executePipelined((RedisCallback<Object>) connection -> {
+            connection.keyCommands().del(key);
+            connection.hashCommands().hMSet(key, fields);
+            connection.keyCommands().pExpire(key, ROOM_TTL.toMillis());
+            return null;
+        });
     }
 
-    public void clearActiveQuestion(Long roomId) {
-        redis.delete(activeQuestionKey(roomId));
-        redis.delete(questionStartKey(roomId));
-        redis.delete(answeredKey(roomId));
-        redis.delete(totalPlayersKey(roomId));
+    private static RoomDeckEntryDto parseDeckEntry(String v) {
+        int sep = v.indexOf(':');
+        return new RoomDeckEntryDto(
+                Long.parseLong(v.substring(0, sep)),
+                Long.parseLong(v.substring(sep + 1))
+        );
     }
 
-    /* ---------------- PLAYER ANSWER STATE ---------------- */
+    /* ---------------- LEADERBOARD ---------------- */
+
+    /** Seeds the leaderboard with every player's score and totals and stores their ids, names and avatars. */
+    public void initLeaderboard(Long roomId, List<RoomGameStateDto.Player> players) {
+        byte[] board = bytes(leaderboardKey(roomId));
+        byte[] profiles = bytes(playersKey(roomId));
+        Map<byte[], byte[]> fields = new HashMap<>();
+        Set<Tuple> members = new HashSet<>();
+        for (RoomGameStateDto.Player p : players) {
+            String u = p.userId().toString();
+            PlayerProgressDto progress = p.progress();
+            members.add(Tuple.of(bytes(u), (double) progress.score()));
+            fields.put(bytes("player:" + u), bytes(p.playerId().toString()));
+            fields.put(bytes("name:" + u), bytes(p.name() == null ? "" : p.name()));
+            fields.put(bytes("avatar:" + u), bytes(p.avatar() == null ? "" : p.avatar()));
+            fields.put(bytes("streak:" + u), bytes(String.valueOf(progress.currentStreak())));
+            fields.put(bytes("best:" + u), bytes(String.valueOf(progress.longestStreak())));
+            fields.put(bytes("correct:" + u), bytes(String.valueOf(progress.correctAnswers())));
+            fields.put(bytes("answers:" + u), bytes(String.valueOf(progress.answers())));
+            fields.put(bytes("time:" + u), bytes(String.valueOf(progress.answerTimeSumMs())));
+        }
 
-    public void initPlayerAnswerState(Long roomId, int totalPlayers) {
-        redis.opsForValue().set(answeredKey(roomId), "0", QUESTION_TTL);
-        redis.opsForValue().set(totalPlayersKey(roomId), String.valueOf(totalPlayers), QUESTION_TTL);
+        redis.executePipelined((RedisCallback<Object>) connection -> {
+            connection.keyCommands().del(board, profiles);
+            connection.zSetCommands().zAdd(board, members);
+            connection.hashCommands().hMSet(profiles, fields);
+            connection.keyCommands().pExpire(board, LEADERBOARD_TTL.toMillis());
+            connection.keyCommands().pExpire(profiles, LEADERBOARD_TTL.toMillis());
+            return null;
+        });
     }
 
-    public long incrementAnswered(Long roomId) {
-        Long result = redis.opsForValue().increment(answeredKey(roomId));
-        if (result == null) {
-            throw new IllegalStateException(
-                    "Redis INCR returned null for roomId=" + roomId
-            );
+    /**
+     * Top {@code limit} players by score (all players if {@code limit <= 0}),
+     * empty when the room has no live leaderboard.
+     */
+    public List<RoomStandingDto> getStandings(Long roomId, int limit) {
+        Set<ZSetOperations.TypedTuple<String>> top = redis.opsForZSet()
+                .reverseRangeWithScores(leaderboardKey(roomId), 0, limit <= 0 ? -1 : limit - 1);
+        if (top == null || top.isEmpty()) return List.of();
+
+        List<Object> fields = new ArrayList<>(top.size() * 4);
+        for (ZSetOperations.TypedTuple<String> t : top) {
+            fields.add("name:" + t.getValue());
+            fields.add("avatar:" + t.getValue());
+            fields.add("best:" + t.getValue());
+            fields.add("correct:" + t.getValue());
         }
-        return result;
-    }
-
-    public long getAnsweredCount(Long roomId) {
-        String v = redis.opsForValue().get(answeredKey(roomId));
-        return v == null ? 0L : Long.parseLong(v);
+        List<Object> profiles = redis.opsForHash().multiGet(playersKey(roomId), fields);
+
+        List<RoomStandingDto> standings = new ArrayList<>(top.size());
+        int i = 0;
+        for (ZSetOperations.TypedTuple<String> t : top) {
+            Object name = profiles.get(i * 4);
+            Object avatar = profiles.get(i * 4 + 1);
+            standings.add(new RoomStandingDto(
+                    i + 1,
+                    Long.parseLong(t.getValue()),
+                    name == null ? null : name.toString(),
+                    avatar == null || avatar.toString().isEmpty() ? null : avatar.toString(),
+                    t.getScore() == null ? 0 : t.getScore().intValue(),
+                    (int) parseLong(profiles.get(i * 4 + 2)),
+                    (int) parseLong(profiles.get(i * 4 + 3))
+            ));
+            i++;
+        }
+        return standings;
     }
 
-    public int getTotalPlayers(Long roomId) {
-        String v = redis.opsForValue().get(totalPlayersKey(roomId));
-        return v == null ? 0 : Integer.parseInt(v);
+    /** 1-based rank of the player, or empty if they are not on the leaderboard. */
+    public Optional<Long> getPlayerRank(Long roomId, Long userId) {
+        Long rank = redis.opsForZSet().reverseRank(leaderboardKey(roomId), userId.toString());
+        return rank == null ? Optional.empty() : Optional.of(rank + 1);
     }
 
-    /* ---------------- ROUND ---------------- */
+    /* ---------------- GAME STATE ---------------- */
+
+    /**
+     * Reads a room's whole game state so another node can resume it.
+     * Empty if the room has no deck, i.e. no game is running.
+     */
+    public Optional<RoomGameStateDto> loadGameState(Long roomId) {
+        Map<Object, Object> room = redis.opsForHash().entries(roomKey(roomId));
+        TreeMap<Integer, RoomDeckEntryDto> deck = new TreeMap<>();
+        room.forEach((k, v) -> {
+            String f = k.toString();
+            if (f.startsWith(DECK_PREFIX)) {
+                deck.put(Integer.parseInt(f.substring(DECK_PREFIX.length())), parseDeckEntry(v.toString()));
+            }
+        });
+        if (deck.isEmpty()) return Optional.empty();
+
+        Map<Object, Object> profiles = redis.opsForHash().entries(playersKey(roomId));
+        Set<ZSetOperations.TypedTuple<String>> scores =
+                redis.opsForZSet().rangeWithScores(leaderboardKey(roomId), 0, -1);
+
+        List<RoomGameStateDto.Player> players = new ArrayList<>();
+        if (scores != null) {
+            for (ZSetOperations.TypedTuple<String> t : scores) {
+                String u = t.getValue();
+                Object playerId = profiles.get("player:" + u);
+                if (playerId == null) continue;
+                Object avatar = profiles.get("avatar:" + u);
+                players.add(new RoomGameStateDto.Player(
+                        Long.parseLong(playerId.toString()),
+                        Long.parseLong(u),
+                        Objects.toString(profiles.get("name:" + u), null),
+                        avatar == null || avatar.toString().isEmpty() ? null : avatar.toString(),
+                        new PlayerProgressDto(
+                                t.getScore() == null ? 0 : t.getScore().intValue(),
+                                (int) parseLong(profiles.get("streak:" + u)),
+                                (int) parseLong(profiles.get("best:" + u)),
+                                (int) parseLong(profiles.get("correct:" + u)),
+                                (int) parseLong(profiles.get("answers:" + u)),
+                                parseLong(profiles.get("time:" + u))
+                        )
+                ));
+            }
+        }
 
-    public int getRound(Long roomId) {
-        String v = redis.opsForValue().get(roundKey(roomId));
-        return v == null ? 1 : Integer.parseInt(v);
+        Object round = room.get(ROUND);
+        Object topic = room.get(TOPIC);
+        Object active = room.get(ACTIVE_QUESTION);
+        Object deadline = room.get(QUESTION_DEADLINE);
+        Long now = redis.execute((RedisCallback<Long>) connection -> connection.serverCommands().time());
+
+        return Optional.of(new RoomGameStateDto(
+                round == null ? 0 : Integer.parseInt(round.toString()),
+                topic == null || topic.toString().isEmpty() ? null : topic.toString(),
+                active == null ? null : Long.parseLong(active.toString()),
+                deadline == null || now == null ? 0 : Long.parseLong(deadline.toString()) - now,
+                List.copyOf(deck.values()),
+                players
+        ));
     }
 
-    public void incrementRound(Long roomId) {
-        redis.opsForValue().increment(roundKey(roomId));
-        redis.expire(roundKey(roomId), ROOM_TTL);
+    /* ---------------- ANSWERS ---------------- */
+
+    /**
+     * Option each player picked in each round, in deck order, or {@code null}
+     * where they did not answer. One HMGET over the room hash.
+     */
+    public Map<Long, List<String>> getSelectedOptions(Long roomId, List<Long> multiplayerQuestionIds,
+                                                      Collection<Long> userIds) {
+        List<Object> fields = new ArrayList<>(multiplayerQuestionIds.size() * userIds.size());
+        for (Long userId : userIds) {
+            for (Long mpqId : multiplayerQuestionIds) {
+                fields.add(ANSWER_PREFIX + mpqId + ":" + userId);
+            }
+        }
+        List<Object> values = fields.isEmpty() ? List.of() : redis.opsForHash().multiGet(roomKey(roomId), fields);
+
+        Map<Long, List<String>> selected = new LinkedHashMap<>();
+        int i = 0;
+        for (Long userId : userIds) {
+            List<String> options = new ArrayList<>(multiplayerQuestionIds.size());
+            for (int r = 0; r < multiplayerQuestionIds.size(); r++, i++) {
+                Object v = values.get(i);
+                options.add(v == null ? null : v.toString());
+            }
+            selected.put(userId, options);
+        }
+        return selected;
     }
 
     /* ---------------- FULL CLEANUP ---------------- */
 
+    /** Drops the game state; the leaderboard stays until its TTL for results. */
     public void clearRoom(Long roomId) {
-        redis.delete(activeQuestionKey(roomId));
-        redis.delete(questionStartKey(roomId));
-        redis.delete(answeredKey(roomId));
-        redis.delete(totalPlayersKey(roomId));
-        redis.delete(roundKey(roomId));
-        redis.delete(lockKey(roomId));
+        redis.delete(roomKey(roomId));
         log.info("Cleared ALL Redis state for room {}", roomId);
     }
 }
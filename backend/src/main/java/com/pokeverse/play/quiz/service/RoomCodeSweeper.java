@@ -0,0 +1,91 @@
+package com.pokeverse.play.quiz.service;
+
+import com.pokeverse.play.model.Status;
+import com.pokeverse.play.quiz.mapper.RoomIdAndCodeMapper;
+import com.pokeverse.play.repository.RoomRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gives back the codes of rooms abandoned in the lobby. Codes are otherwise
+ * released only when the host deletes the room or the game finishes, so a
+ * room nobody starts or leaves would hold its code forever.
+ * <p>
+ * A room is abandoned once its lobby hash has expired while it is still
+ * {@code NOT_STARTED}, or its row is gone. It has to be seen that way by two
+ * sweeps in a row, so a room being created right now (code assigned, lobby
+ * not yet indexed, row not yet committed) is never swept. Runs on its own
+ * thread, away from the ownership heartbeat; sweeping the same room on every
+ * node is harmless.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RoomCodeSweeper {
+
+    static final Duration SWEEP_INTERVAL = Duration.ofMinutes(10);
+    private static final int SCAN_BATCH = 500;
+
+    private final RoomIdAndCodeMapper roomIdAndCodeMapper;
+    private final RoomLobbyService roomLobbyService;
+    private final RoomRepository roomRepository;
+
+    private final ScheduledExecutorService sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "room-code-sweeper");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // Owned by the sweeper thread
+    private Set<Long> suspects = Set.of();
+
+    @PostConstruct
+    public void start() {
+        long interval = SWEEP_INTERVAL.toMillis();
+        sweeper.scheduleWithFixedDelay(this::sweep, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        sweeper.shutdown();
+    }
+
+    void sweep() {
+        try {
+            Set<Long> abandoned = new HashSet<>();
+            roomIdAndCodeMapper.scanRoomIds(SCAN_BATCH, batch -> {
+                List<Long> unlisted = roomLobbyService.unindexed(batch);
+                if (unlisted.isEmpty()) return;
+                Set<Long> playing = new HashSet<>(roomRepository.findIdsByIdInAndStatusNot(unlisted, Status.NOT_STARTED));
+                unlisted.stream().filter(id -> !playing.contains(id)).forEach(abandoned::add);
+            });
+
+            Set<Long> next = new HashSet<>();
+            int released = 0;
+            for (Long roomId : abandoned) {
+                if (suspects.contains(roomId)) {
+                    roomIdAndCodeMapper.deleteRoom(roomId);
+                    released++;
+                } else {
+                    next.add(roomId);
+                }
+            }
+            suspects = next;
+            if (released > 0) log.info("Released the codes of {} abandoned rooms", released);
+        } catch (Exception e) {
+            // Keep going: a throw would cancel the periodic task for good
+            log.error("Room code sweep failed: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,410 @@
+package com.pokeverse.play.quiz.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pokeverse.play.model.Status;
+import com.pokeverse.play.quiz.dto.AnswerBatchDto;
+import com.pokeverse.play.quiz.dto.AnswerSubmissionDto;
+import com.pokeverse.play.quiz.dto.AnswerValidationDto;
+import com.pokeverse.play.quiz.dto.BankQuestionDto;
+import com.pokeverse.play.quiz.dto.LeaderBoardDto;
+import com.pokeverse.play.quiz.dto.PlayerProgressDto;
+import com.pokeverse.play.quiz.dto.ResultDto;
+import com.pokeverse.play.quiz.dto.RoomQuestionDto;
+import com.pokeverse.play.quiz.dto.RoomStandingDto;
+import com.pokeverse.play.quiz.utils.EncodedFrame;
+import com.pokeverse.play.quiz.utils.WebsocketMessingUtil;
+import io.micrometer.core.instrument.DistributionSummary;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Single-threaded owner of one running game. Answers and timer events are
+ * posted to the actor's mailbox and handled one at a time, so players,
+ * scores and the current round need no locks and the answer path never
+ * reads from Postgres. Round state and answer dedupe live in Redis, one
+ * script call per round start and per answer. Durable writes go through
+ * {@link RoomGamePersistence}.
+ * <p>
+ * Accepted answers are not broadcast one by one: they are buffered and sent
+ * as one {@code /game/answer} frame per batching interval, and the buffer is
+ * flushed before each round ends, so a room of n players gets a handful of
+ * answer frames per round instead of n.
+ */
+@Slf4j
+class RoomGameActor {
+
+    static final int QUESTION_INTERVAL_SECONDS = 30;
+    static final int FIRST_ROUND_DELAY_SECONDS = 5;
+    private static final int MAX_POINT = 310;
+    private static final int PENALTY_PER_SECOND = 10;
+    private static final int STANDINGS_SIZE = 10;
+    static final Duration TRANSITION_RETRY_DELAY = Duration.ofSeconds(1);
+    static final int MAX_TRANSITION_RETRIES = 5;
+
+    record Services(
+            WebsocketMessingUtil messaging,
+            RedisRoomAndQuestionService redis,
+            RoomGamePersistence persistence,
+            QuestionStatsAggregator stats,
+            RoomResultsService results,
+            ObjectMapper objectMapper,
+            RoomTimerService timer,
+            Executor executor,
+            AnswerBatching batching
+    ) {}
+
+    /** Shared by all actors: {@code scheduler} only posts flushes to the mailboxes. */
+    record AnswerBatching(ScheduledExecutorService scheduler, Duration interval, DistributionSummary batchSize) {}
+
+    record Round(Long multiplayerQuestionId, BankQuestionDto question) {}
+
+    static final class PlayerState {
+        final Long playerId;
+        final Long userId;
+        final String name;
+        final String avatar;
+        PlayerProgressDto progress;
+
+        PlayerState(Long playerId, Long userId, String name, String avatar, PlayerProgressDto progress) {
+            this.playerId = playerId;
+            this.userId = userId;
+            this.name = name;
+            this.avatar = avatar;
+            this.progress = progress;
+        }
+    }
+
+    private final Long roomId;
+    private final String topic;
+    private final List<Round> rounds;
+    private final Map<Long, PlayerState> players; // by userId
+    private final long fencingToken;
+    private final Services services;
+    private final Consumer<Long> onFinished;
+    private final Consumer<Long> onFenced;
+
+    private final Queue<Runnable> mailbox = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean draining = new AtomicBoolean();
+
+    // Owned by the mailbox thread
+    private int round;
+    private int startedRound;   // last round opened in Redis
+    private int broadcastRound; // last round whose question went out with its deadline armed
+    private int transitionFailures;
+    private Round current;
+    private EncodedFrame nextPayload;
+    private boolean finished;
+    private final List<AnswerBatchDto.Answer> pendingAnswers = new ArrayList<>();
+    private boolean flushScheduled;
+
+    RoomGameActor(Long roomId, String topic, List<Round> rounds, Collection<PlayerState> players, long fencingToken,
+                  Services services, Consumer<Long> onFinished, Consumer<Long> onFenced) {
+        this.roomId = roomId;
+        this.topic = topic;
+        this.rounds = List.copyOf(rounds);
+        this.players = new LinkedHashMap<>();
+        players.forEach(p -> this.players.put(p.userId, p));
+        this.fencingToken = fencingToken;
+        this.services = services;
+        this.onFinished = onFinished;
+        this.onFenced = onFenced;
+    }
+
+    /* ---------------------------------------------------- */
+    /* MESSAGES                                             */
+    /* ---------------------------------------------------- */
+
+    /**
+     * Starts the game, or picks it up where another node left it: the current
+     * round's question was already broadcast, so only its deadline is re-armed.
+     */
+    void resume(int fromRound, long msUntilDeadline) {
+        tell(() -> {
+            if (fromRound <= 0) {
+                nextPayload = serialize(1);
+                scheduleDeadline(0, Duration.ofSeconds(FIRST_ROUND_DELAY_SECONDS));
+                return;
+            }
+            round = Math.min(fromRound, rounds.size());
+            startedRound = broadcastRound = round;
+            current = rounds.get(round - 1);
+            nextPayload = round < rounds.size() ? serialize(round + 1) : null;
+            scheduleDeadline(round, Duration.ofMillis(Math.max(0, msUntilDeadline)));
+        });
+    }
+
+    /** This node no longer owns the room: stop without touching the shared game state. */
+    void abandon() {
+        tell(() -> {
+            services.timer().cancel(roomId);
+            finished = true;
+            log.info("Stopped game actor for room {} on this node", roomId);
+        });
+    }
+
+    void answer(AnswerValidationDto dto) {
+        tell(() -> onAnswer(dto));
+    }
+
+    /* ---------------------------------------------------- */
+    /* MAILBOX                                              */
+    /* ---------------------------------------------------- */
+
+    private void tell(Runnable message) {
+        mailbox.add(message);
+        if (draining.compareAndSet(false, true)) {
+            services.executor().execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        Runnable message;
+        while ((message = mailbox.poll()) != null) {
+            try {
+                if (!finished) message.run();
+            } catch (Exception e) {
+                log.error("Error in game actor for room {}: {}", roomId, e.getMessage(), e);
+            }
+        }
+        draining.set(false);
+        // A message may have arrived after the last poll but before the flag was released
+        if (!mailbox.isEmpty() && draining.compareAndSet(false, true)) {
+            services.executor().execute(this::drain);
+        }
+    }
+
+    /* ---------------------------------------------------- */
+    /* ROUNDS                                               */
+    /* ---------------------------------------------------- */
+
+    // Both the deadline and the all-answered shortcut end a round through this message
+    private void endRound(int forRound) {
+        if (forRound != round) return; // round already ended the other way
+        transition();
+    }
+
+    /**
+     * Runs {@link #advance()}. A failure there leaves no deadline armed, so the
+     * room would never move again: retry shortly instead, and abort the game
+     * once the retries run out. A retry is dropped if the round moved on since.
+     */
+    private void transition() {
+        try {
+            advance();
+            transitionFailures = 0;
+        } catch (Exception e) {
+            if (++transitionFailures > MAX_TRANSITION_RETRIES) {
+                abort(e);
+                return;
+            }
+            log.warn("Round transition failed for room {} (attempt {}), retrying: {}",
+                    roomId, transitionFailures, e.getMessage());
+            int atRound = round, atBroadcast = broadcastRound;
+            services.timer().schedule(roomId, TRANSITION_RETRY_DELAY, () -> tell(() -> {
+                if (round == atRound && broadcastRound == atBroadcast) transition();
+            }));
+        }
+    }
+
+    // Each step is done once per round, so a retry resumes where the last attempt failed
+    private void advance() {
+        if (broadcastRound == round) {
+            flushAnswers();
+            if (round > 0) pushStandings();
+            round++;
+        }
+        if (round > rounds.size()) {
+            endGame();
+            return;
+        }
+
+        current = rounds.get(round - 1);
+        if (startedRound != round) {
+            // start_round.lua bumps the round counter, so it runs once per round
+            if (services.redis().startRound(roomId, current.multiplayerQuestionId(), players.size(), fencingToken) < 0) {
+                log.warn("Room {} was taken over by a newer owner, stopping here", roomId);
+                services.timer().cancel(roomId);
+                finished = true;
+                onFenced.accept(roomId);
+                return;
+            }
+            startedRound = round;
+        }
+
+        EncodedFrame payload = nextPayload != null ? nextPayload : serialize(round);
+        services.messaging().notifyRoomFrame(roomId, "/game/question", payload);
+        scheduleDeadline(round, Duration.ofSeconds(QUESTION_INTERVAL_SECONDS));
+        broadcastRound = round;
+
+        // Encode the next round's frame now, off the round boundary
+        nextPayload = round < rounds.size() ? serialize(round + 1) : null;
+    }
+
+    private void scheduleDeadline(int forRound, Duration delay) {
+        // Replaces any pending deadline, so an early advance resets the room's timer
+        services.timer().schedule(roomId, delay, () -> tell(() -> endRound(forRound)));
+    }
+
+    /* ---------------------------------------------------- */
+    /* ANSWERS                                              */
+    /* ---------------------------------------------------- */
+
+    private void onAnswer(AnswerValidationDto dto) {
+        if (current == null || (dto.questionId() != null && !dto.questionId().equals(current.multiplayerQuestionId()))) {
+            services.messaging().sendError(dto.userId(), "Question expired");
+            return;
+        }
+
+        PlayerState player = players.get(dto.userId());
+        if (player == null) return;
+
+        boolean correct = current.question().answer().equalsIgnoreCase(dto.selectedOption());
+        AnswerSubmissionDto submission = services.redis().submitAnswer(
+                roomId, current.multiplayerQuestionId(), player.userId, dto.selectedOption(),
+                correct, MAX_POINT, PENALTY_PER_SECOND
+        );
+        if (submission.outcome() == AnswerSubmissionDto.Outcome.EXPIRED) {
+            services.messaging().sendError(dto.userId(), "Question expired");
+            return;
+        }
+        if (submission.outcome() == AnswerSubmissionDto.Outcome.DUPLICATE) return;
+
+        services.stats().record(current.question().id(), correct, submission.elapsedMs());
+        player.progress = submission.progress();
+
+        services.persistence().recordAnswer(
+                player.playerId, current.multiplayerQuestionId(), dto.selectedOption(), correct, player.progress
+        );
+
+        pendingAnswers.add(new AnswerBatchDto.Answer(player.playerId, correct, player.progress.score(), submission.rank()));
+        scheduleFlush();
+
+        if (submission.allAnswered()) {
+            log.info("All players answered early for room {}", roomId);
+            // Queued rather than run inline; the round end flushes this answer's batch first
+            int answeredRound = round;
+            tell(() -> endRound(answeredRound));
+        }
+    }
+
+    private void scheduleFlush() {
+        if (flushScheduled) return;
+        flushScheduled = true;
+        services.batching().scheduler().schedule(
+                () -> tell(this::flushAnswers),
+                services.batching().interval().toMillis(), TimeUnit.MILLISECONDS
+        );
+    }
+
+    // A flush left over from an earlier round only sends this round's batch a little early
+    private void flushAnswers() {
+        flushScheduled = false;
+        if (pendingAnswers.isEmpty()) return;
+
+        services.batching().batchSize().record(pendingAnswers.size());
+        services.messaging().notifyRoom(roomId, "/game/answer", new AnswerBatchDto(round, List.copyOf(pendingAnswers)));
+        pendingAnswers.clear();
+    }
+
+    /* ---------------------------------------------------- */
+    /* END                                                  */
+    /* ---------------------------------------------------- */
+
+    /** Compact top-N frame at the end of each round: {"round":r,"top":[[userId,score],...]}. */
+    private void pushStandings() {
+        List<long[]> top = services.redis().getStandings(roomId, STANDINGS_SIZE).stream()
+                .map(s -> new long[]{s.userId(), s.score()})
+                .toList();
+        services.messaging().notifyRoom(roomId, "/game/standings", Map.of("round", round, "top", top));
+    }
+
+    private void endGame() {
+        List<RoomStandingDto> standings = services.redis().getStandings(roomId, 0);
+
+        // Snapshot before the status change, so a COMPLETED room always has its results
+        services.results().publish(roomId, toResults(standings));
+        services.persistence().updateRoomStatus(roomId, Status.COMPLETED);
+
+        List<LeaderBoardDto> leaderboard = standings.stream()
+                .map(s -> new LeaderBoardDto(s.rank(), s.userId(), s.name(), s.score()))
+                .toList();
+
+        services.messaging().notifyRoom(roomId, "/game/end", Map.of("leaderboard", leaderboard));
+        finish();
+    }
+
+    /** Gives up on a game whose round transition keeps failing, rather than leaving the room stuck. */
+    private void abort(Exception cause) {
+        log.error("Aborting game in room {} after {} failed round transitions: {}",
+                roomId, MAX_TRANSITION_RETRIES + 1, cause.getMessage(), cause);
+        try {
+            services.persistence().updateRoomStatus(roomId, Status.COMPLETED);
+            services.messaging().notifyRoom(roomId, "/game/info", Map.of("message", "Game_Aborted"));
+        } catch (Exception e) {
+            log.error("Failed to report aborted game in room {}: {}", roomId, e.getMessage());
+        }
+        finish();
+    }
+
+    private List<ResultDto> toResults(List<RoomStandingDto> standings) {
+        List<Long> questionIds = rounds.stream().map(Round::multiplayerQuestionId).toList();
+        Map<Long, List<String>> selected = services.redis().getSelectedOptions(roomId, questionIds, players.keySet());
+
+        List<ResultDto> results = new ArrayList<>(standings.size());
+        for (RoomStandingDto s : standings) {
+            List<String> options = selected.getOrDefault(s.userId(), List.of());
+            StringBuilder perRound = new StringBuilder(rounds.size());
+            for (int i = 0; i < rounds.size(); i++) {
+                String option = i < options.size() ? options.get(i) : null;
+                perRound.append(option == null ? '-'
+                        : rounds.get(i).question().answer().equalsIgnoreCase(option) ? '1' : '0');
+            }
+            results.add(ResultDto.builder()
+                    .id(s.userId())
+                    .name(s.name())
+                    .score(s.score())
+                    .topic(topic)
+                    .accuracy(ResultDto.accuracy(s.correctAnswers(), rounds.size()))
+                    .streak(s.longestStreak())
+                    .avatar(s.avatar())
+                    .rank(s.rank())
+                    .rounds(perRound.toString())
+                    .build());
+        }
+        return results;
+    }
+
+    private void finish() {
+        services.timer().cancel(roomId);
+        finished = true;
+        try {
+            services.redis().clearRoom(roomId);
+        } catch (Exception e) {
+            // The room key expires on its own; ownership must still be released
+            log.error("Failed to clear Redis state of room {}: {}", roomId, e.getMessage());
+        }
+        onFinished.accept(roomId);
+        log.info("Game finished for room {}", roomId);
+    }
+
+    // JSON once per round; CBOR follows lazily if any subscriber negotiated it
+    private EncodedFrame serialize(int forRound) {
+        Round r = rounds.get(forRound - 1);
+        try {
+            return new EncodedFrame(services.objectMapper().writeValueAsBytes(
+                    RoomQuestionDto.of(r.multiplayerQuestionId(), r.question(), forRound, rounds.size())
+            ));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize question for room " + roomId, e);
+        }
+    }
+}
@@ -0,0 +1,305 @@
+package com.pokeverse.play.quiz.service;
+
+import com.pokeverse.play.model.Status;
+import com.pokeverse.play.quiz.dto.PlayerProgressDto;
+import com.pokeverse.play.repository.RoomRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Write-behind persistence for running games. Game actors enqueue writes and
+ * move on; a single flusher thread drains the queue and writes it in one
+ * transaction per batch, either when {@link #BATCH_SIZE} writes are waiting
+ * or every {@link #FLUSH_INTERVAL_MS}.
+ * <p>
+ * Attempts become one multi-row INSERT with ids taken from a pooled block of
+ * {@code multiplayer_attempts_seq}; each player's running totals (score,
+ * streaks, answer counts) are merged so they get at most one UPDATE per batch.
+ * A finished game's results snapshot and room status changes are written in
+ * the same transaction, so a batch lands whole or not at all.
+ * <p>
+ * A batch that fails is retried with backoff until it lands; the queue
+ * meanwhile fills up and pushes back on the writers. Results and status
+ * writes wait for room in the queue; answers wait {@link #ENQUEUE_TIMEOUT_MS}
+ * and are then dropped. A batch the database rejects outright (a constraint
+ * violation) is split, and only the offending writes are set aside.
+ * <p>
+ * Metrics: {@code quiz.persistence.queue} (writes waiting),
+ * {@code quiz.persistence.flush.failed} (failed batch attempts),
+ * {@code quiz.persistence.dropped} (tag {@code type}: answer, results, status).
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RoomGamePersistence {
+
+    static final int BATCH_SIZE = 500;
+    static final long FLUSH_INTERVAL_MS = 200;
+    private static final int QUEUE_CAPACITY = 100_000;
+    private static final long ENQUEUE_TIMEOUT_MS = 100;
+    private static final int ID_BLOCK_SIZE = 50; // matches the sequence's INCREMENT BY
+    private static final long RETRY_BASE_MS = 100;
+    private static final long RETRY_MAX_MS = 5_000;
+    private static final int SHUTDOWN_ATTEMPTS = 3;
+
+    private static final String INSERT_ATTEMPT = """
+            INSERT INTO multiplayer_attempts (id, player_id, multiplayer_question_id, selected_option, is_correct, answered_at)
+            VALUES (?, ?, ?, ?, ?, ?)
+            """;
+    private static final String UPDATE_PROGRESS = """
+            UPDATE room_players
+            SET score = ?, current_streak = ?, longest_streak = ?, correct_answers = ?, answers = ?, answer_time_sum_ms = ?
+            WHERE id = ?
+            """;
+
+    private static final String INSERT_RESULTS = """
+            INSERT INTO room_results (room_id, results, completed_at) VALUES (?, ?, ?)
+            ON CONFLICT (room_id) DO NOTHING
+            """;
+
+    private final RoomRepository roomRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    private final BlockingQueue<Write> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+
+    // Owned by the flusher thread
+    private long nextId;
+    private long lastId = -1;
+
+    private volatile boolean running = true;
+    private Thread flusher;
+    private Counter failedFlushes;
+
+    private sealed interface Write permits Answer, Results, RoomStatus {}
+
+    private record Answer(Long playerId, Long multiplayerQuestionId, String selectedOption,
+                          boolean correct, PlayerProgressDto progress, Instant answeredAt) implements Write {}
+
+    private record Results(Long roomId, String json, Instant completedAt) implements Write {}
+
+    private record RoomStatus(Long roomId, Status status) implements Write {}
+
+    @PostConstruct
+    public void start() {
+        Gauge.builder("quiz.persistence.queue", queue, BlockingQueue::size)
+                .description("Room game writes waiting to be flushed")
+                .register(meterRegistry);
+        failedFlushes = meterRegistry.counter("quiz.persistence.flush.failed");
+
+        flusher = new Thread(this::run, "room-game-writer");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        flusher.interrupt();
+        flusher.join(TimeUnit.SECONDS.toMillis(10));
+        if (!queue.isEmpty()) {
+            log.warn("Room game writer stopped with {} writes still queued", queue.size());
+        }
+    }
+
+    /* ---------------- API ---------------- */
+
+    public void recordAnswer(Long playerId, Long multiplayerQuestionId, String selectedOption,
+                             boolean correct, PlayerProgressDto progress) {
+        enqueue(new Answer(playerId, multiplayerQuestionId, selectedOption, correct, progress, Instant.now()));
+    }
+
+    public void recordResults(Long roomId, String json) {
+        enqueue(new Results(roomId, json, Instant.now()));
+    }
+
+    public void updateRoomStatus(Long roomId, Status status) {
+        enqueue(new RoomStatus(roomId, status));
+    }
+
+    private void enqueue(Write write) {
+        try {
+            if (!(write instanceof Answer)) {
+                queue.put(write); // results and status changes are never dropped
+            } else if (!queue.offer(write, ENQUEUE_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                dropped(write, "write queue is full");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            dropped(write, "interrupted while queueing");
+        }
+    }
+
+    private void dropped(Write write, String reason) {
+        String type = switch (write) {
+            case Answer a -> "answer";
+            case Results r -> "results";
+            case RoomStatus s -> "status";
+        };
+        meterRegistry.counter("quiz.persistence.dropped", "type", type).increment();
+        log.error("Dropping room game write ({}): {}", reason, write);
+    }
+
+    /* ---------------- FLUSH ---------------- */
+
+    private void run() {
+        List<Write> batch = new ArrayList<>(BATCH_SIZE);
+        while (running || !queue.isEmpty()) {
+            try {
+                Write first = queue.poll(FLUSH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+
+                // Collect more until the batch is full or the interval is up
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(FLUSH_INTERVAL_MS);
+                while (batch.size() < BATCH_SIZE && running) {
+                    queue.drainTo(batch, BATCH_SIZE - batch.size());
+                    if (batch.size() >= BATCH_SIZE) break;
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) break;
+                    Write next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) break;
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                // shutting down: fall through and flush what we have, then drain the rest
+                queue.drainTo(batch, BATCH_SIZE - batch.size());
+            }
+
+            if (!batch.isEmpty()) {
+                write(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Flushes the batch, retrying with backoff until it lands. A constraint
+     * violation will not go away on retry, so the batch is split and each
+     * write retried on its own; only writes rejected alone are dropped.
+     */
+    private void write(List<Write> batch) {
+        long backoff = RETRY_BASE_MS;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                flush(batch);
+                return;
+            } catch (DataIntegrityViolationException e) {
+                failedFlushes.increment();
+                if (batch.size() == 1) {
+                    dropped(batch.get(0), e.getMostSpecificCause().getMessage());
+                    return;
+                }
+                log.warn("Batch of {} room game writes violates a constraint, writing them one by one", batch.size());
+                batch.forEach(w -> write(List.of(w)));
+                return;
+            } catch (Exception e) {
+                failedFlushes.increment();
+                if (!running && attempt >= SHUTDOWN_ATTEMPTS) {
+                    log.error("Room game writer stopping, {} writes not persisted: {}", batch.size(), e.getMessage());
+                    batch.forEach(w -> dropped(w, "writer shut down"));
+                    return;
+                }
+                log.warn("Failed to flush {} room game writes (attempt {}), retrying in {} ms: {}",
+                        batch.size(), attempt, backoff, e.getMessage());
+                if (running) {
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(backoff));
+                    backoff = Math.min(backoff * 2, RETRY_MAX_MS);
+                }
+            }
+        }
+    }
+
+    private void flush(List<Write> batch) {
+        List<Answer> answers = new ArrayList<>(batch.size());
+        Map<Long, PlayerProgressDto> progress = new LinkedHashMap<>();
+        List<Results> results = new ArrayList<>(1);
+        List<RoomStatus> statuses = new ArrayList<>(1);
+
+        for (Write write : batch) {
+            if (write instanceof Answer a) {
+                answers.add(a);
+                progress.put(a.playerId(), a.progress()); // totals are cumulative, latest wins
+            } else if (write instanceof Results r) {
+                results.add(r);
+            } else if (write instanceof RoomStatus s) {
+                statuses.add(s);
+            }
+        }
+
+        transactionTemplate.executeWithoutResult(tx -> {
+            if (!answers.isEmpty()) {
+                List<Object[]> rows = new ArrayList<>(answers.size());
+                for (Answer a : answers) {
+                    rows.add(new Object[]{
+                            nextAttemptId(), a.playerId(), a.multiplayerQuestionId(),
+                            a.selectedOption(), a.correct(), Timestamp.from(a.answeredAt())
+                    });
+                }
+                jdbcTemplate.batchUpdate(INSERT_ATTEMPT, rows);
+            }
+            if (!progress.isEmpty()) {
+                List<Object[]> rows = new ArrayList<>(progress.size());
+                progress.forEach((playerId, p) -> rows.add(new Object[]{
+                        p.score(), p.currentStreak(), p.longestStreak(),
+                        p.correctAnswers(), p.answers(), p.answerTimeSumMs(), playerId
+                }));
+                jdbcTemplate.batchUpdate(UPDATE_PROGRESS, rows);
+            }
+            for (Results r : results) {
+                jdbcTemplate.update(INSERT_RESULTS, r.roomId(), r.json(), Timestamp.from(r.completedAt()));
+            }
+            // Same transaction, so a room is never COMPLETED without its final answers and results
+            statuses.forEach(s -> roomRepository.updateStatus(s.roomId(), s.status()));
+        });
+
+        log.debug("Flushed {} attempts, {} player updates, {} status changes",
+                answers.size(), progress.size(), statuses.size());
+    }
+
+    /**
+     * Hands out ids from a block of {@link #ID_BLOCK_SIZE}, the same pooled
+     * layout Hibernate uses, so only one {@code nextval} is needed per block.
+     * Like Hibernate's {@code PooledOptimizer}, a value below the block size is
+     * the start of a fresh sequence (created by Hibernate at 1 when the V3
+     * migration found no table to convert): it is the low end, and the next
+     * value is the block's top.
+     */
+    private long nextAttemptId() {
+        if (nextId > lastId) {
+            long hi = nextSequenceValue();
+            if (hi < ID_BLOCK_SIZE) {
+                nextId = hi;
+                lastId = nextSequenceValue();
+            } else {
+                lastId = hi;
+                nextId = hi - ID_BLOCK_SIZE + 1;
+            }
+        }
+        return nextId++;
+    }
+
+    private long nextSequenceValue() {
+        Long value = jdbcTemplate.queryForObject("SELECT nextval('multiplayer_attempts_seq')", Long.class);
+        if (value == null) throw new IllegalStateException("multiplayer_attempts_seq returned no value");
+        return value;
+    }
+}
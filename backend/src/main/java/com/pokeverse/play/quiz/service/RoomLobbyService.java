@@ -0,0 +1,212 @@
+package com.pokeverse.play.quiz.service;
+
+import com.pokeverse.play.model.Room;
+import com.pokeverse.play.quiz.dto.LobbyRoomDto;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * Index of joinable rooms for the public lobby.
+ * <p>
+ * Every {@code NOT_STARTED} room that has a free seat is a member of
+ * {@code lobby:open} and of {@code lobby:open:<topic>}, scored by fill level,
+ * so listing and quick-match are a ZREVRANGE on one set. Name, code, host and
+ * seat counts sit in a {@code lobby:room:<id>} hash. Full, started and
+ * deleted rooms drop out of the sets; hashes of rooms that are abandoned
+ * expire and their set entries are pruned when listed.
+ * <p>
+ * Seats are reserved here too: the room's members are a set next to its
+ * hash, and a join checks membership and the cap and takes the seat in one
+ * script call, so concurrent joins can never overfill a room.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RoomLobbyService {
+
+    static final String ALL_TOPICS = "all";
+    private static final Duration ROOM_TTL = Duration.ofHours(2);
+
+    private static final String OPEN_KEY = "lobby:open";
+
+    private static final RedisScript<Long> OPEN =
+            RedisScript.of(new ClassPathResource("redis/open_room.lua"), Long.class);
+    private static final RedisScript<Long> JOIN =
+            RedisScript.of(new ClassPathResource("redis/join_room.lua"), Long.class);
+    private static final RedisScript<Long> LEAVE =
+            RedisScript.of(new ClassPathResource("redis/leave_room.lua"), Long.class);
+
+    public enum SeatOutcome { TAKEN, FULL, ALREADY_SEATED, NOT_OPEN }
+
+    private final StringRedisTemplate redis;
+
+    /* ---------------- KEYS ---------------- */
+
+    private static String roomKey(Long roomId) {
+        return "lobby:room:" + roomId;
+    }
+
+    private static String membersKey(Long roomId) {
+        return roomKey(roomId) + ":members";
+    }
+
+    private static String topicKey(String topic) {
+        return OPEN_KEY + ":" + normalize(topic);
+    }
+
+    static String normalize(String topic) {
+        return topic == null || topic.isBlank() || topic.equalsIgnoreCase("ALL")
+                ? ALL_TOPICS : topic.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /* ---------------- UPDATES ---------------- */
+
+    /** Indexes a {@code NOT_STARTED} room with its current players seated. */
+    public void open(Room room, Long code) {
+        index(room, code, false);
+    }
+
+    /**
+     * Indexes a room whose entry expired, unless another join has indexed it
+     * meanwhile; re-seeding over that would drop the seats taken since.
+     */
+    public void reopen(Room room, Long code) {
+        index(room, code, true);
+    }
+
+    private void index(Room room, Long code, boolean onlyIfAbsent) {
+        List<String> args = new ArrayList<>(8 + room.getPlayers().size());
+        args.add(room.getId().toString());
+        args.add(String.valueOf(ROOM_TTL.toMillis()));
+        args.add(String.valueOf(room.getMaxPlayers()));
+        args.add(code.toString());
+        args.add(room.getHostId().toString());
+        args.add(room.getName());
+        args.add(room.getTopic() == null ? "" : room.getTopic());
+        args.add(onlyIfAbsent ? "1" : "0");
+        room.getPlayers().forEach(p -> args.add(p.getUserId().toString()));
+
+        redis.execute(OPEN, keys(room.getId(), room.getTopic()), args.toArray());
+    }
+
+    /**
+     * Takes a seat for the user if the room is open, has room and does not
+     * seat them already. {@code NOT_OPEN} also covers rooms whose index
+     * expired; callers can re-{@link #open} those from the database.
+     */
+    public SeatOutcome reserveSeat(Long roomId, Long userId) {
+        Object topic = redis.opsForHash().get(roomKey(roomId), "topic");
+        if (topic == null) return SeatOutcome.NOT_OPEN;
+
+        Long players = redis.execute(
+                JOIN, keys(roomId, topic.toString()),
+                roomId.toString(), userId.toString(), String.valueOf(ROOM_TTL.toMillis())
+        );
+        if (players == null || players == -2) return SeatOutcome.NOT_OPEN;
+        if (players == -1) return SeatOutcome.ALREADY_SEATED;
+        if (players == 0) return SeatOutcome.FULL;
+        return SeatOutcome.TAKEN;
+    }
+
+    /** Frees the user's seat, e.g. after they leave or their join could not be stored. */
+    public void releaseSeat(Long roomId, Long userId) {
+        Object topic = redis.opsForHash().get(roomKey(roomId), "topic");
+        if (topic == null) return;
+        redis.execute(
+                LEAVE, keys(roomId, topic.toString()),
+                roomId.toString(), userId.toString(), String.valueOf(ROOM_TTL.toMillis())
+        );
+    }
+
+    private static List<String> keys(Long roomId, String topic) {
+        return List.of(roomKey(roomId), membersKey(roomId), OPEN_KEY, topicKey(topic));
+    }
+
+    public void updateHost(Long roomId, Long hostId) {
+        if (Boolean.TRUE.equals(redis.hasKey(roomKey(roomId)))) {
+            redis.opsForHash().put(roomKey(roomId), "hostId", hostId.toString());
+        }
+    }
+
+    /** Room started or deleted: it can no longer be joined. */
+    public void close(Long roomId, String topic) {
+        redis.executePipelined((RedisCallback<Object>) connection -> {
+            byte[] member = bytes(roomId.toString());
+            connection.zSetCommands().zRem(bytes(OPEN_KEY), member);
+            connection.zSetCommands().zRem(bytes(topicKey(topic)), member);
+            connection.keyCommands().del(bytes(roomKey(roomId)), bytes(membersKey(roomId)));
+            return null;
+        });
+    }
+
+    /* ---------------- QUERIES ---------------- */
+
+    /** Fullest joinable rooms first; {@code topic} null means every topic. */
+    public List<LobbyRoomDto> listOpenRooms(String topic, int limit) {
+        String key = topic == null ? OPEN_KEY : topicKey(topic);
+        Set<String> ids = redis.opsForZSet().reverseRange(key, 0, limit - 1);
+        if (ids == null || ids.isEmpty()) return List.of();
+
+        List<String> order = new ArrayList<>(ids);
+        List<Object> infos = redis.executePipelined((RedisCallback<Object>) connection -> {
+            for (String id : order) {
+                connection.hashCommands().hGetAll(bytes(roomKey(Long.parseLong(id))));
+            }
+            return null;
+        });
+
+        List<LobbyRoomDto> rooms = new ArrayList<>(order.size());
+        List<String> stale = new ArrayList<>();
+        for (int i = 0; i < order.size(); i++) {
+            Map<?, ?> info = (Map<?, ?>) infos.get(i);
+            if (info == null || info.isEmpty()) {
+                stale.add(order.get(i));
+                continue;
+            }
+            Object roomTopic = info.get("topic");
+            rooms.add(new LobbyRoomDto(
+                    Long.parseLong(order.get(i)),
+                    Long.parseLong(info.get("code").toString()),
+                    Long.parseLong(info.get("hostId").toString()),
+                    Objects.toString(info.get("name"), null),
+                    roomTopic == null || roomTopic.toString().isEmpty() ? null : roomTopic.toString(),
+                    Integer.parseInt(info.get("players").toString()),
+                    Integer.parseInt(info.get("maxPlayers").toString())
+            ));
+        }
+        if (!stale.isEmpty()) {
+            // Abandoned rooms whose lobby hash expired
+            redis.opsForZSet().remove(key, stale.toArray());
+            log.debug("Pruned {} expired rooms from {}", stale.size(), key);
+        }
+        return rooms;
+    }
+
+    /** Rooms among {@code roomIds} that have no lobby hash, i.e. started, deleted or abandoned; one pipeline. */
+    public List<Long> unindexed(List<Long> roomIds) {
+        List<Object> exists = redis.executePipelined((RedisCallback<Object>) connection -> {
+            for (Long id : roomIds) {
+                connection.keyCommands().exists(bytes(roomKey(id)));
+            }
+            return null;
+        });
+        List<Long> missing = new ArrayList<>();
+        for (int i = 0; i < roomIds.size(); i++) {
+            if (!Boolean.TRUE.equals(exists.get(i))) missing.add(roomIds.get(i));
+        }
+        return missing;
+    }
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+}
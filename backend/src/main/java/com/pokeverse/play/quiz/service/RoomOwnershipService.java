@@ -0,0 +1,200 @@
+package com.pokeverse.play.quiz.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Decides which backend node runs each active room's game.
+ * <p>
+ * Live nodes heartbeat into a sorted set; each node builds the same
+ * consistent-hash ring over them and claims the active rooms that hash to it
+ * with a {@link LeaseLockService} lease on {@code quiz:room:{<id>}:owner}.
+ * The lease's fencing token is stamped on every round the node starts, so a
+ * node that lost a room cannot advance it. When a node dies its leases lapse,
+ * the ring drops it, and the rooms it owned hash to surviving nodes, which
+ * claim and resume them from Redis within a few seconds. A node that joins
+ * takes its share of new and orphaned rooms; running games stay put.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RoomOwnershipService {
+
+    static final long HEARTBEAT_MS = 1_000;
+    private static final Duration NODE_TTL = Duration.ofSeconds(5);
+    private static final int VIRTUAL_NODES = 64;
+
+    private static final String NODES_KEY = "quiz:nodes";
+    private static final String ACTIVE_ROOMS_KEY = "quiz:rooms:active";
+
+    private final StringRedisTemplate redis;
+    private final LeaseLockService leaseLockService;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final Map<Long, LeaseLockService.Lease> owned = new ConcurrentHashMap<>();
+    private volatile NavigableMap<Long, String> ring = new TreeMap<>();
+    private volatile List<String> liveNodes = List.of();
+
+    private volatile Consumer<Long> onClaimed = roomId -> {};
+    private volatile Consumer<Long> onLost = roomId -> {};
+
+    /** Callbacks run when this node takes over a room and when it loses one. */
+    public void setListeners(Consumer<Long> onClaimed, Consumer<Long> onLost) {
+        this.onClaimed = onClaimed;
+        this.onLost = onLost;
+    }
+
+    public String nodeId() {
+        return nodeId;
+    }
+
+    /* ---------------- KEYS ---------------- */
+
+    private String leaseKey(Long roomId) {
+        return "quiz:room:{" + roomId + "}:owner";
+    }
+
+    /* ---------------- ROOMS ---------------- */
+
+    /**
+     * Marks a room as active. If the ring maps it to this node it is claimed
+     * right away; otherwise its owner picks it up on its next heartbeat.
+     */
+    public void register(Long roomId) {
+        redis.opsForSet().add(ACTIVE_ROOMS_KEY, roomId.toString());
+        if (ring.isEmpty()) heartbeat();
+        if (nodeId.equals(nodeFor(roomId))) tryClaim(roomId);
+    }
+
+    /** Game over: drop the room from the active set and give up its lease. */
+    public void release(Long roomId) {
+        redis.opsForSet().remove(ACTIVE_ROOMS_KEY, roomId.toString());
+        LeaseLockService.Lease lease = owned.remove(roomId);
+        if (lease != null) leaseLockService.release(lease);
+    }
+
+    public boolean owns(Long roomId) {
+        return owned.containsKey(roomId);
+    }
+
+    /** Fencing token of this node's lease on the room, or 0 if it does not own it. */
+    public long fencingToken(Long roomId) {
+        LeaseLockService.Lease lease = owned.get(roomId);
+        return lease == null ? 0 : lease.fencingToken();
+    }
+
+    /** Node currently holding the room's lease, if any. */
+    public Optional<String> ownerOf(Long roomId) {
+        return leaseLockService.holder(leaseKey(roomId))
+                .map(owner -> owner.substring(0, owner.indexOf(':')));
+    }
+
+    private void tryClaim(Long roomId) {
+        if (owned.containsKey(roomId)) return;
+        leaseLockService.tryAcquire(leaseKey(roomId), nodeId, lease -> onLeaseLost(roomId, lease)).ifPresent(lease -> {
+            if (owned.putIfAbsent(roomId, lease) != null) return;
+            log.info("Node {} claimed room {} with fencing token {}", nodeId, roomId, lease.fencingToken());
+            onClaimed.accept(roomId);
+        });
+    }
+
+    private void onLeaseLost(Long roomId, LeaseLockService.Lease lease) {
+        if (!owned.remove(roomId, lease)) return;
+        log.warn("Node {} lost the lease of room {}", nodeId, roomId);
+        onLost.accept(roomId);
+    }
+
+    /* ---------------- HEARTBEAT ---------------- */
+
+    @Scheduled(fixedDelay = HEARTBEAT_MS)
+    public void heartbeat() {
+        try {
+            refreshNodes();
+            claimOrphans();
+        } catch (Exception e) {
+            log.error("Room ownership heartbeat failed on node {}: {}", nodeId, e.getMessage());
+        }
+    }
+
+    private void refreshNodes() {
+        long now = System.currentTimeMillis();
+        redis.opsForZSet().add(NODES_KEY, nodeId, now);
+        redis.opsForZSet().removeRangeByScore(NODES_KEY, Double.NEGATIVE_INFINITY, now - NODE_TTL.toMillis());
+
+        Set<String> nodes = redis.opsForZSet().range(NODES_KEY, 0, -1);
+        List<String> sorted = nodes == null ? List.of(nodeId) : nodes.stream().sorted().toList();
+        if (sorted.equals(liveNodes)) return;
+
+        NavigableMap<Long, String> next = new TreeMap<>();
+        for (String node : sorted) {
+            for (int v = 0; v < VIRTUAL_NODES; v++) {
+                next.put(hash(node + "#" + v), node);
+            }
+        }
+        ring = next;
+        liveNodes = sorted;
+        log.info("Room ownership ring now has {} nodes", sorted.size());
+    }
+
+    private void claimOrphans() {
+        Set<String> active = redis.opsForSet().members(ACTIVE_ROOMS_KEY);
+        if (active == null) return;
+
+        List<Long> mine = new ArrayList<>();
+        for (String id : active) {
+            Long roomId = Long.parseLong(id);
+            if (!owned.containsKey(roomId) && nodeId.equals(nodeFor(roomId))) mine.add(roomId);
+        }
+        if (mine.isEmpty()) return;
+
+        // One pipelined EXISTS pass; only rooms without a lease are claimed
+        List<Object> exists = redis.executePipelined((RedisCallback<Object>) connection -> {
+            for (Long roomId : mine) {
+                connection.keyCommands().exists(leaseKey(roomId).getBytes(StandardCharsets.UTF_8));
+            }
+            return null;
+        });
+        for (int i = 0; i < mine.size(); i++) {
+            if (!Boolean.TRUE.equals(exists.get(i))) tryClaim(mine.get(i));
+        }
+    }
+
+    @PreDestroy
+    public void leave() {
+        redis.opsForZSet().remove(NODES_KEY, nodeId);
+        owned.values().forEach(leaseLockService::release);
+        owned.clear();
+    }
+
+    /* ---------------- RING ---------------- */
+
+    private String nodeFor(Long roomId) {
+        NavigableMap<Long, String> r = ring;
+        if (r.isEmpty()) return nodeId;
+        Map.Entry<Long, String> e = r.ceilingEntry(hash("room:" + roomId));
+        return (e != null ? e : r.firstEntry()).getValue();
+    }
+
+    // FNV-1a, then a SplitMix64 finalizer to spread virtual nodes evenly
+    private static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+        h = (h ^ (h >>> 30)) * 0xBF58476D1CE4E5B9L;
+        h = (h ^ (h >>> 27)) * 0x94D049BB133111EBL;
+        return h ^ (h >>> 31);
+    }
+}
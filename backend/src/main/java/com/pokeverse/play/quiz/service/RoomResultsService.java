@@ -0,0 +1,59 @@
+package com.pokeverse.play.quiz.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pokeverse.play.model.RoomResult;
+import com.pokeverse.play.quiz.dto.ResultDto;
+import com.pokeverse.play.repository.RoomResultRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Final results of finished games. The snapshot is serialized once when the
+ * game ends, cached as raw JSON and written to {@code room_results}; reads
+ * hand the stored document out without rebuilding or re-encoding it.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RoomResultsService {
+
+    private static final String CACHE_PREFIX = "room-results";
+    private static final Duration CACHE_TTL = Duration.ofDays(1);
+
+    private final RedisCacheService redisCacheService;
+    private final RoomResultRepository roomResultRepository;
+    private final RoomGamePersistence roomGamePersistence;
+    private final ObjectMapper objectMapper;
+
+    /** Stores the snapshot of a finished game; later calls for the same room are ignored by the table. */
+    public void publish(Long roomId, List<ResultDto> results) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(results);
+        } catch (JsonProcessingException e) {
+            log.error("Failed to serialize results for room {}: {}", roomId, e.getMessage());
+            return;
+        }
+        redisCacheService.setJson(CACHE_PREFIX, roomId, json, CACHE_TTL);
+        roomGamePersistence.recordResults(roomId, json);
+    }
+
+    /** The serialized snapshot: one cache lookup, or one row fetch that refills the cache. */
+    public Optional<String> find(Long roomId) {
+        Optional<String> cached = redisCacheService.getJson(CACHE_PREFIX, roomId);
+        if (cached.isPresent()) return cached;
+
+        return roomResultRepository.findById(roomId)
+                .map(RoomResult::getResults)
+                .map(json -> {
+                    redisCacheService.setJson(CACHE_PREFIX, roomId, json, CACHE_TTL);
+                    return json;
+                });
+    }
+}
@@ -0,0 +1,169 @@
+package com.pokeverse.play.quiz.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pokeverse.play.model.Room;
+import com.pokeverse.play.model.Status;
+import com.pokeverse.play.quiz.dto.MultiplayerPlayersInRoomDto;
+import com.pokeverse.play.quiz.dto.MultiplayerRoomCreationDto;
+import com.pokeverse.play.quiz.dto.RosterEventDto;
+import com.pokeverse.play.quiz.mapper.RoomMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * Versioned lobby roster of each room, cached in one Redis hash
+ * ({@code quiz:room:{<id>}:roster}): room fields, {@code player:<userId>}
+ * entries and a {@code version}. Joins, leaves and host changes edit one
+ * field in place and publish a small delta on {@code /topic/room/<id>/roster};
+ * clients that miss a version read the full snapshot instead.
+ * <p>
+ * Versions are drawn from a counter next to the hash
+ * ({@code quiz:room:{<id>}:roster:version}) that lives far longer than the
+ * roster itself, so a roster reseeded after expiring never repeats a version.
+ * Callers apply changes once the database change behind them is committed.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RoomRosterService {
+
+    private static final Duration ROSTER_TTL = Duration.ofHours(2);
+    private static final Duration VERSION_TTL = Duration.ofDays(30);
+    private static final String PLAYER_PREFIX = "player:";
+
+    private static final RedisScript<Long> APPLY =
+            RedisScript.of(new ClassPathResource("redis/roster_apply.lua"), Long.class);
+    private static final RedisScript<Long> SEED =
+            RedisScript.of(new ClassPathResource("redis/roster_seed.lua"), Long.class);
+
+    private final StringRedisTemplate redis;
+    private final ObjectMapper objectMapper;
+    private final SimpMessagingTemplate messagingTemplate;
+
+    private String rosterKey(Long roomId) {
+        return "quiz:room:{" + roomId + "}:roster";
+    }
+
+    private List<String> keys(Long roomId) {
+        return List.of(rosterKey(roomId), rosterKey(roomId) + ":version");
+    }
+
+    private static String topic(Long roomId) {
+        return "/topic/room/" + roomId + "/roster";
+    }
+
+    /* ---------------- SNAPSHOT ---------------- */
+
+    /** Caches the full roster from the database; returns it with its new version. */
+    public MultiplayerRoomCreationDto seed(Room room, Long code) {
+        List<String> args = new ArrayList<>();
+        args.add(String.valueOf(ROSTER_TTL.toMillis()));
+        args.add(String.valueOf(VERSION_TTL.toMillis()));
+        Collections.addAll(args,
+                "id", room.getId().toString(),
+                "code", code.toString(),
+                "hostId", room.getHostId().toString(),
+                "name", room.getName(),
+                "rounds", String.valueOf(room.getTotalRounds()),
+                "maxPlayers", String.valueOf(room.getMaxPlayers()),
+                "status", room.getStatus().name());
+        room.getPlayers().forEach(p -> {
+            args.add(PLAYER_PREFIX + p.getUserId());
+            args.add(toJson(RoomMapper.toPlayerDto(p)));
+        });
+
+        Long version = redis.execute(SEED, keys(room.getId()), args.toArray());
+        return RoomMapper.toDto(room, code, version == null ? 0 : version);
+    }
+
+    /** The cached roster, one HGETALL; empty if it is not cached. */
+    public Optional<MultiplayerRoomCreationDto> snapshot(Long roomId) {
+        Map<Object, Object> fields = redis.opsForHash().entries(rosterKey(roomId));
+        if (fields.isEmpty() || !fields.containsKey("id")) return Optional.empty();
+
+        List<MultiplayerPlayersInRoomDto> players = new ArrayList<>();
+        fields.forEach((k, v) -> {
+            if (k.toString().startsWith(PLAYER_PREFIX)) players.add(fromJson(v.toString()));
+        });
+        players.sort(Comparator.comparingLong(MultiplayerPlayersInRoomDto::id)); // join order
+
+        return Optional.of(new MultiplayerRoomCreationDto(
+                Long.parseLong(fields.get("id").toString()),
+                Long.parseLong(fields.get("code").toString()),
+                Long.parseLong(fields.get("hostId").toString()),
+                Objects.toString(fields.get("name"), null),
+                Integer.parseInt(fields.get("rounds").toString()),
+                Integer.parseInt(fields.get("maxPlayers").toString()),
+                Status.valueOf(fields.get("status").toString()),
+                players,
+                Long.parseLong(fields.get("version").toString())
+        ));
+    }
+
+    /* ---------------- DELTAS ---------------- */
+
+    /** Each returns the new roster version, or 0 if the roster is not cached and nothing was published. */
+    public long playerJoined(Long roomId, MultiplayerPlayersInRoomDto player) {
+        long version = apply(roomId, "set", PLAYER_PREFIX + player.userId(), toJson(player));
+        if (version > 0) publish(roomId, RosterEventDto.playerJoined(version, player));
+        return version;
+    }
+
+    public long playerLeft(Long roomId, Long userId) {
+        long version = apply(roomId, "del", PLAYER_PREFIX + userId, "");
+        if (version > 0) publish(roomId, RosterEventDto.playerLeft(version, userId));
+        return version;
+    }
+
+    public long hostChanged(Long roomId, Long hostId) {
+        long version = apply(roomId, "set", "hostId", hostId.toString());
+        if (version > 0) publish(roomId, RosterEventDto.hostChanged(version, hostId));
+        return version;
+    }
+
+    public void publish(Long roomId, RosterEventDto event) {
+        messagingTemplate.convertAndSend(topic(roomId), event);
+    }
+
+    /** Status shows in the snapshot only; game start is announced on its own topic. */
+    public void statusChanged(Long roomId, Status status) {
+        apply(roomId, "set", "status", status.name());
+    }
+
+    public void delete(Long roomId) {
+        redis.delete(keys(roomId));
+    }
+
+    private long apply(Long roomId, String op, String field, String value) {
+        Long version = redis.execute(
+                APPLY, keys(roomId),
+                String.valueOf(ROSTER_TTL.toMillis()), op, field, value, String.valueOf(VERSION_TTL.toMillis())
+        );
+        return version == null ? 0 : version;
+    }
+
+    private String toJson(MultiplayerPlayersInRoomDto player) {
+        try {
+            return objectMapper.writeValueAsString(player);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize roster entry for user " + player.userId(), e);
+        }
+    }
+
+    private MultiplayerPlayersInRoomDto fromJson(String json) {
+        try {
+            return objectMapper.readValue(json, MultiplayerPlayersInRoomDto.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Corrupt roster entry: " + json, e);
+        }
+    }
+}
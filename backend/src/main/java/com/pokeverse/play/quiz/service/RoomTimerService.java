@@ -0,0 +1,185 @@
+package com.pokeverse.play.quiz.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Per-room deadlines on a hashed timing wheel. Each room has at most one
+ * pending deadline; scheduling again replaces it, which is how a round is
+ * cut short when everyone has answered.
+ * <p>
+ * Callers only enqueue requests, so {@link #schedule} and {@link #cancel}
+ * are O(1) and lock-free. A single wheel thread applies them at the start of
+ * each tick, then advances the cursor and fires that bucket. Tasks run on
+ * the wheel thread and must only hand work off (e.g. post to a game actor).
+ * How late each tick starts is recorded in {@code quiz.room.timer.drift}.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RoomTimerService {
+
+    static final long TICK_MS = 50;
+    static final int WHEEL_SIZE = 1024; // ~51s per rotation, longer delays wrap
+    private static final int MASK = WHEEL_SIZE - 1;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Queue<Runnable> requests = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger scheduled = new AtomicInteger();
+
+    // Owned by the wheel thread
+    private final Bucket[] wheel = new Bucket[WHEEL_SIZE];
+    private final Map<Long, Timeout> byRoom = new HashMap<>();
+    private long tick;
+
+    private Timer drift;
+    private long startNanos;
+    private volatile boolean running = true;
+    private Thread worker;
+
+    @PostConstruct
+    public void start() {
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            wheel[i] = new Bucket();
+        }
+        drift = Timer.builder("quiz.room.timer.drift")
+                .description("Delay between a wheel tick's due time and when it ran")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("quiz.room.timer.scheduled", scheduled, AtomicInteger::get)
+                .description("Rooms with a pending deadline")
+                .register(meterRegistry);
+
+        startNanos = System.nanoTime();
+        worker = new Thread(this::run, "room-timer-wheel");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        worker.interrupt();
+        worker.join(TimeUnit.SECONDS.toMillis(2));
+    }
+
+    /* ---------------- API ---------------- */
+
+    /** Runs {@code task} after {@code delay}, replacing any pending deadline for the room. */
+    public void schedule(Long roomId, Duration delay, Runnable task) {
+        long deadlineNanos = System.nanoTime() + delay.toNanos();
+        requests.add(() -> add(roomId, deadlineNanos, task));
+    }
+
+    public void cancel(Long roomId) {
+        requests.add(() -> {
+            Timeout t = byRoom.remove(roomId);
+            if (t != null) unlink(t);
+        });
+    }
+
+    /* ---------------- WHEEL ---------------- */
+
+    private void run() {
+        long tickNanos = TimeUnit.MILLISECONDS.toNanos(TICK_MS);
+        while (running) {
+            long due = startNanos + (tick + 1) * tickNanos;
+            long now;
+            while ((now = System.nanoTime()) < due) {
+                LockSupport.parkNanos(due - now);
+                if (!running) return;
+            }
+            drift.record(now - due, TimeUnit.NANOSECONDS);
+
+            Runnable request;
+            while ((request = requests.poll()) != null) {
+                request.run();
+            }
+            tick++;
+            expire(wheel[(int) (tick & MASK)]);
+        }
+    }
+
+    private void add(Long roomId, long deadlineNanos, Runnable task) {
+        Timeout previous = byRoom.remove(roomId);
+        if (previous != null) unlink(previous);
+
+        long ticks = Math.max(1, Math.ceilDiv(deadlineNanos - startNanos, TimeUnit.MILLISECONDS.toNanos(TICK_MS)) - tick);
+        Timeout t = new Timeout(roomId, task, (ticks - 1) / WHEEL_SIZE);
+        byRoom.put(roomId, t);
+        link(wheel[(int) ((tick + ticks) & MASK)], t);
+    }
+
+    private void expire(Bucket bucket) {
+        Timeout t = bucket.head;
+        while (t != null) {
+            Timeout next = t.next;
+            if (t.rounds > 0) {
+                t.rounds--;
+            } else {
+                unlink(t);
+                byRoom.remove(t.roomId, t);
+                try {
+                    t.task.run();
+                } catch (Exception e) {
+                    log.error("Room timer task for room {} failed: {}", t.roomId, e.getMessage(), e);
+                }
+            }
+            t = next;
+        }
+    }
+
+    private void link(Bucket bucket, Timeout t) {
+        t.bucket = bucket;
+        t.next = bucket.head;
+        if (bucket.head != null) bucket.head.prev = t;
+        bucket.head = t;
+        scheduled.incrementAndGet();
+    }
+
+    private void unlink(Timeout t) {
+        Bucket bucket = t.bucket;
+        if (bucket == null) return;
+        if (t.prev != null) t.prev.next = t.next;
+        else bucket.head = t.next;
+        if (t.next != null) t.next.prev = t.prev;
+        t.prev = t.next = null;
+        t.bucket = null;
+        scheduled.decrementAndGet();
+    }
+
+    private static final class Bucket {
+        Timeout head;
+    }
+
+    private static final class Timeout {
+        final Long roomId;
+        final Runnable task;
+        long rounds;
+        Bucket bucket;
+        Timeout prev;
+        Timeout next;
+
+        Timeout(Long roomId, Runnable task, long rounds) {
+            this.roomId = roomId;
+            this.task = task;
+            this.rounds = rounds;
+        }
+    }
+}
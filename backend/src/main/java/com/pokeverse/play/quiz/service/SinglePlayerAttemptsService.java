@@ -14,8 +14,10 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDateTime;
+import java.util.Objects;
 
 @Service
 @RequiredArgsConstructor
@@ -26,6 +28,7 @@ public class SinglePlayerAttemptsService {
     private final SinglePlayerSessionRepository singlePlayerSessionRepository;
     @Autowired
     private final RedisCacheService redisCacheService;
+    private final QuestionStatsAggregator questionStatsAggregator;
 
     public ResponseEntity<?> submitAttempt(SubmitAttemptDto dto) {
 
@@ -58,10 +61,28 @@ public class SinglePlayerAttemptsService {
             return errorUtil.badRequest("Invalid question ID");
         }
 
+        // Answer time runs from the previous answer, or the session start for the first one
+        Instant previous = session.getAttempts().stream()
+                .map(SinglePlayerAttempts::getAnsweredAt)
+                .filter(Objects::nonNull)
+                .max(Instant::compareTo)
+                .orElse(session.getStartedAt());
+
+        // A re-submit overwrites the answer but must not count the question twice
+        boolean firstAnswer = attempt.getAnsweredAt() == null;
+
         attempt.setSelectedAnswer(dto.selectedAnswer());
         attempt.setCorrect(dto.selectedAnswer().equals(question.getAnswer()));
         attempt.setAnsweredAt(Instant.now());
 
+        if (firstAnswer) {
+            questionStatsAggregator.record(
+                    question.getId(),
+                    attempt.isCorrect(),
+                    previous == null ? 0 : Duration.between(previous, attempt.getAnsweredAt()).toMillis()
+            );
+        }
+
         SinglePlayerAttemptDto responseDto = new SinglePlayerAttemptDto(
                 question.getId(),
                 attempt.getSelectedAnswer(),
@@ -4,6 +4,7 @@ import com.pokeverse.play.model.Question;
 import com.pokeverse.play.model.SinglePlayerAttempts;
 import com.pokeverse.play.model.SinglePlayerSession;
 import com.pokeverse.play.model.Status;
+import com.pokeverse.play.quiz.dto.BankQuestionDto;
 import com.pokeverse.play.quiz.dto.QuestionWithOutAnswerDto;
 import com.pokeverse.play.quiz.dto.SinglePlayerSessionCreateDto;
 import com.pokeverse.play.quiz.dto.SinglePlayerSessionDto;
@@ -29,6 +30,7 @@ public class SinglePlayerSessionService {
     private static final String SESSION_CACHE = "SESSION";
 
     private final QuestionRepository questionRepository;
+    private final QuestionBank questionBank;
     private final SinglePlayerSessionRepository singlePlayerSessionRepository;
 
     @Autowired
@@ -49,30 +51,29 @@ public class SinglePlayerSessionService {
         String topic = (dto.topic().equals("ALL") || dto.topic().isBlank()) ? null : dto.topic();
 
 
-        List<Question> fetched = questionRepository.findByFilters(
-                difficulty,
-                topic,
-                dto.rounds() * 2
-        );
+        // 1️⃣ Draw distinct questions from the in-memory bank
+        List<BankQuestionDto> drawn = questionBank.draw(topic, difficulty, dto.rounds());
 
-        // 1️⃣ Deduplicate by question ID
-        Map<Long, Question> uniqueMap = new LinkedHashMap<>();
-        for (Question q : fetched) {
-            uniqueMap.putIfAbsent(q.getId(), q);
+        // 2️⃣ Enforce invariant
+        if (drawn.size() < dto.rounds()) {
+            return errorUtil.notFound("Could not find enough unique questions.");
         }
 
-        List<Question> uniqueQuestions = new ArrayList<>(uniqueMap.values());
-
-        // 2️⃣ Shuffle (Fisher–Yates via JDK)
-        Collections.shuffle(uniqueQuestions);
+        // 3️⃣ Load the drawn rows by primary key, keeping the drawn order
+        Map<Long, Question> byId = new HashMap<>();
+        for (Question q : questionRepository.findAllById(
+                drawn.stream().map(BankQuestionDto::id).toList())) {
+            byId.put(q.getId(), q);
+        }
+        List<Question> selected = drawn.stream()
+                .map(b -> byId.get(b.id()))
+                .filter(Objects::nonNull)
+                .toList();
 
-        // 3️⃣ Enforce invariant
-        if (uniqueQuestions.size() < dto.rounds()) {
+        if (selected.size() < dto.rounds()) {
             return errorUtil.notFound("Could not find enough unique questions.");
         }
 
-        List<Question> selected = uniqueQuestions.subList(0, dto.rounds());
-
         // 4️⃣ Build session
         SinglePlayerSession session = SinglePlayerSession.builder()
                 .userId(dto.userId())
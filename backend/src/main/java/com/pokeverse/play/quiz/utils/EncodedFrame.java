@@ -0,0 +1,58 @@
+package com.pokeverse.play.quiz.utils;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * A JSON frame body plus its CBOR form, carried in the {@value #HEADER}
+ * message header from the broker channel to every subscriber's outbound
+ * message, so each encoding is produced at most once per frame however
+ * many sessions receive it. CBOR is transcoded from the JSON bytes on first
+ * use, so frames nobody reads as CBOR never pay for it.
+ */
+public final class EncodedFrame {
+
+    public static final String HEADER = "encodedFrame";
+
+    private static final JsonFactory JSON = new JsonFactory();
+    private static final CBORFactory CBOR = new CBORFactory();
+
+    private final byte[] json;
+    private volatile byte[] cbor;
+
+    public EncodedFrame(byte[] json) {
+        this.json = json;
+    }
+
+    public byte[] json() {
+        return json;
+    }
+
+    public boolean hasCbor() {
+        return cbor != null;
+    }
+
+    // Concurrent first calls may both transcode; the results are identical
+    public byte[] cbor() {
+        byte[] c = cbor;
+        if (c == null) cbor = c = toCbor(json);
+        return c;
+    }
+
+    static byte[] toCbor(byte[] json) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length);
+        try (JsonParser parser = JSON.createParser(json);
+             JsonGenerator generator = CBOR.createGenerator(out)) {
+            if (parser.nextToken() != null) generator.copyCurrentStructure(parser);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to transcode frame to CBOR", e);
+        }
+        return out.toByteArray();
+    }
+}
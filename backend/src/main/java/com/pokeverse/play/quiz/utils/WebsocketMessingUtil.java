@@ -1,29 +1,60 @@
 package com.pokeverse.play.quiz.utils;
 
 import com.pokeverse.play.quiz.dto.ApiError;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
 import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
 
 import java.time.Instant;
 
+/**
+ * Room and player notifications. Every frame handed to the broker is counted
+ * in {@code quiz.ws.outbound} (tag {@code destination}: the room-relative
+ * destination, or {@code /error}); each is then delivered once per subscriber.
+ */
 @Component
 @RequiredArgsConstructor
 public class WebsocketMessingUtil {
 
+    private static final String OUTBOUND_METRIC = "quiz.ws.outbound";
+
     private final SimpMessagingTemplate messagingTemplate;
+    private final MeterRegistry meterRegistry;
 
     public void notifyRoom(Long roomId, String destination, Object payload) {
+        count(destination);
         messagingTemplate.convertAndSend("/topic/room/" + roomId + destination, payload);
     }
 
+    // Sends an already encoded frame without running the message converters again
+    public void notifyRoomFrame(Long roomId, String destination, EncodedFrame frame) {
+        count(destination);
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create();
+        accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        accessor.setHeader(EncodedFrame.HEADER, frame);
+        accessor.setLeaveMutable(true);
+        messagingTemplate.send(
+                "/topic/room/" + roomId + destination,
+                MessageBuilder.createMessage(frame.json(), accessor.getMessageHeaders())
+        );
+    }
+
 
 
     public void sendError(Long userId, String message) {
+        count("/error");
         messagingTemplate.convertAndSend("/topic/player/" + userId + "/error",
                 error(message));
     }
 
+    private void count(String destination) {
+        meterRegistry.counter(OUTBOUND_METRIC, "destination", destination).increment();
+    }
+
     private ApiError error(String message){
         return new ApiError(message, Instant.now());
     }
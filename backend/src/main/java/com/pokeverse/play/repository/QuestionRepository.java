@@ -1,11 +1,13 @@
 package com.pokeverse.play.repository;
 
 import com.pokeverse.play.model.Question;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 
@@ -38,4 +40,19 @@ public interface QuestionRepository extends JpaRepository<Question, Long> {
     );
 
     Question findByQuestion(String question);
+
+    boolean existsByQuestionHash(Long questionHash);
+
+    boolean existsByQuestionHashAndIdNot(Long questionHash, Long id);
+
+    @Query("SELECT q.id FROM Question q WHERE q.id > :after ORDER BY q.id")
+    List<Long> findIdsAfter(@Param("after") Long after, Pageable pageable);
+
+    @Query("SELECT q.id FROM Question q")
+    List<Long> findAllIds();
+
+    @Query("SELECT MAX(q.updatedAt) FROM Question q")
+    Instant findLatestUpdate();
+
+    List<Question> findByUpdatedAtAfter(Instant since);
 }
@@ -0,0 +1,32 @@
+package com.pokeverse.play.repository;
+
+import com.pokeverse.play.model.QuestionStats;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface QuestionStatsRepository extends JpaRepository<QuestionStats, Long> {
+
+    @Query("""
+        SELECT s FROM QuestionStats s
+        WHERE (:topic IS NULL OR s.topic = :topic) AND s.attempts >= :minAttempts
+        ORDER BY (s.correct * 1.0 / s.attempts) ASC, s.attempts DESC
+    """)
+    List<QuestionStats> findHardest(@Param("topic") String topic,
+                                    @Param("minAttempts") long minAttempts,
+                                    Pageable pageable);
+
+    @Query("""
+        SELECT s FROM QuestionStats s
+        WHERE (:topic IS NULL OR s.topic = :topic) AND s.attempts >= :minAttempts
+        ORDER BY (s.correct * 1.0 / s.attempts) DESC, s.attempts DESC
+    """)
+    List<QuestionStats> findEasiest(@Param("topic") String topic,
+                                    @Param("minAttempts") long minAttempts,
+                                    Pageable pageable);
+}
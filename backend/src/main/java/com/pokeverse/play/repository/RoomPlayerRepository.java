@@ -2,12 +2,18 @@ package com.pokeverse.play.repository;
 
 import com.pokeverse.play.model.RoomPlayer;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface RoomPlayerRepository extends JpaRepository<RoomPlayer, Long> {
 
     Optional<RoomPlayer> findByRoomIdAndUserId(Long roomId, Long userId);
+
+    @Query("SELECT p FROM RoomPlayer p JOIN FETCH p.room WHERE p.room.id = :roomId")
+    List<RoomPlayer> findAllWithRoomByRoomId(@Param("roomId") Long roomId);
 }
\ No newline at end of file
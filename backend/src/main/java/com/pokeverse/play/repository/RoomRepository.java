@@ -1,9 +1,37 @@
 package com.pokeverse.play.repository;
 
 import com.pokeverse.play.model.Room;
+import com.pokeverse.play.model.Status;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface RoomRepository extends JpaRepository<Room, Long> {
-}
\ No newline at end of file
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Room r SET r.status = :status WHERE r.id = :roomId")
+    int updateStatus(@Param("roomId") Long roomId, @Param("status") Status status);
+
+    // Starting a game holds the room row, so joins that are still inserting finish first
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM Room r WHERE r.id = :roomId")
+    Optional<Room> findByIdForUpdate(@Param("roomId") Long roomId);
+
+    // A join shares the room row while inserting its player, so a start cannot slip in between
+    @Query(value = "SELECT status FROM rooms WHERE id = :roomId FOR SHARE", nativeQuery = true)
+    Optional<String> findStatusForShare(@Param("roomId") Long roomId);
+
+    @Query("SELECT r.id FROM Room r WHERE r.id IN :ids AND r.status <> :status")
+    List<Long> findIdsByIdInAndStatusNot(@Param("ids") Collection<Long> ids, @Param("status") Status status);
+}
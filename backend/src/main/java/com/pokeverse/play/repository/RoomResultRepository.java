@@ -0,0 +1,9 @@
+package com.pokeverse.play.repository;
+
+import com.pokeverse.play.model.RoomResult;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface RoomResultRepository extends JpaRepository<RoomResult, Long> {
+}
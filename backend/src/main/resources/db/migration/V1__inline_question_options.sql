@@ -0,0 +1,22 @@
+-- Move question options from the question_options collection table into a
+-- text[] column on questions. Guarded so it is a no-op on an empty schema,
+-- where Hibernate creates the inline column itself.
+DO $$
+BEGIN
+    IF to_regclass('questions') IS NOT NULL THEN
+        ALTER TABLE questions ADD COLUMN IF NOT EXISTS options text[] NOT NULL DEFAULT '{}';
+
+        IF to_regclass('question_options') IS NOT NULL THEN
+            UPDATE questions q
+            SET options = o.options
+            FROM (
+                SELECT question_id, array_agg(option_value ORDER BY ctid) AS options
+                FROM question_options
+                GROUP BY question_id
+            ) o
+            WHERE o.question_id = q.id;
+
+            DROP TABLE question_options;
+        END IF;
+    END IF;
+END $$;
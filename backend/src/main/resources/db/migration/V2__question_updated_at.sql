@@ -0,0 +1,10 @@
+-- Track the last change of each question so the question bank snapshot
+-- can be brought up to date with a delta query instead of a full reload.
+DO $$
+BEGIN
+    IF to_regclass('questions') IS NOT NULL THEN
+        ALTER TABLE questions ADD COLUMN IF NOT EXISTS updated_at timestamp(6) with time zone;
+        UPDATE questions SET updated_at = COALESCE(created_at, now()) WHERE updated_at IS NULL;
+        CREATE INDEX IF NOT EXISTS idx_questions_updated_at ON questions (updated_at);
+    END IF;
+END $$;
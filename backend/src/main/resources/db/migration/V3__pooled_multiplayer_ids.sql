@@ -0,0 +1,16 @@
+-- Multiplayer questions and attempts move from IDENTITY to pooled sequences
+-- (increment 50) so their inserts can be batched. Existing identity columns
+-- are generated BY DEFAULT, so explicit ids from the sequences are accepted.
+DO $$
+BEGIN
+    IF to_regclass('multiplayer_attempts') IS NOT NULL THEN
+        CREATE SEQUENCE IF NOT EXISTS multiplayer_attempts_seq INCREMENT BY 50;
+        PERFORM setval('multiplayer_attempts_seq',
+                       COALESCE((SELECT max(id) FROM multiplayer_attempts), 0) + 50);
+    END IF;
+    IF to_regclass('multiplayer_questions') IS NOT NULL THEN
+        CREATE SEQUENCE IF NOT EXISTS multiplayer_questions_seq INCREMENT BY 50;
+        PERFORM setval('multiplayer_questions_seq',
+                       COALESCE((SELECT max(id) FROM multiplayer_questions), 0) + 50);
+    END IF;
+END $$;
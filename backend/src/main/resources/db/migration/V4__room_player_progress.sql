@@ -0,0 +1,39 @@
+-- Running totals on room_players so results no longer walk multiplayer_attempts.
+-- Existing rows are backfilled from their attempts; longest_streak is the
+-- longest run of correct answers in answer order (gaps and islands).
+DO $$
+BEGIN
+    IF to_regclass('room_players') IS NOT NULL THEN
+        ALTER TABLE room_players
+            ADD COLUMN IF NOT EXISTS current_streak     INTEGER NOT NULL DEFAULT 0,
+            ADD COLUMN IF NOT EXISTS longest_streak     INTEGER NOT NULL DEFAULT 0,
+            ADD COLUMN IF NOT EXISTS correct_answers    INTEGER NOT NULL DEFAULT 0,
+            ADD COLUMN IF NOT EXISTS answers            INTEGER NOT NULL DEFAULT 0,
+            ADD COLUMN IF NOT EXISTS answer_time_sum_ms BIGINT  NOT NULL DEFAULT 0;
+
+        IF to_regclass('multiplayer_attempts') IS NOT NULL THEN
+            UPDATE room_players p
+            SET answers         = a.answers,
+                correct_answers = a.correct_answers
+            FROM (SELECT player_id,
+                         count(*)                           AS answers,
+                         count(*) FILTER (WHERE is_correct) AS correct_answers
+                  FROM multiplayer_attempts
+                  GROUP BY player_id) a
+            WHERE a.player_id = p.id;
+
+            UPDATE room_players p
+            SET longest_streak = s.longest_streak
+            FROM (SELECT player_id, max(run) AS longest_streak
+                  FROM (SELECT player_id, count(*) AS run
+                        FROM (SELECT player_id, is_correct,
+                                     row_number() OVER (PARTITION BY player_id ORDER BY id)
+                                   - row_number() OVER (PARTITION BY player_id, is_correct ORDER BY id) AS island
+                              FROM multiplayer_attempts) t
+                        WHERE is_correct
+                        GROUP BY player_id, island) runs
+                  GROUP BY player_id) s
+            WHERE s.player_id = p.id;
+        END IF;
+    END IF;
+END $$;
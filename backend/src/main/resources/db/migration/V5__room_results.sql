@@ -0,0 +1,7 @@
+-- Final results of each finished game, serialized once at game end and
+-- served as is. Rows are immutable.
+CREATE TABLE IF NOT EXISTS room_results (
+    room_id      BIGINT PRIMARY KEY,
+    results      TEXT NOT NULL,
+    completed_at TIMESTAMP(6) WITH TIME ZONE
+);
@@ -0,0 +1,27 @@
+-- Reject duplicate questions by the hash of their normalized text, the same
+-- one imports already dedupe on within an upload, instead of by exact text.
+-- Existing rows are hashed here the way QuestionTextUtil does (first 64 bits
+-- of SHA-256 over the lower-cased, whitespace-collapsed, trimmed text); where
+-- old rows already collide, only the oldest one gets the hash.
+DO $$
+BEGIN
+    IF to_regclass('questions') IS NOT NULL THEN
+        ALTER TABLE questions ADD COLUMN IF NOT EXISTS question_hash BIGINT;
+
+        UPDATE questions q
+        SET question_hash = h.question_hash
+        FROM (
+            SELECT DISTINCT ON (question_hash) id, question_hash
+            FROM (SELECT id,
+                         ('x' || left(encode(sha256(convert_to(
+                             btrim(regexp_replace(lower(question), '\s+', ' ', 'g')), 'UTF8')), 'hex'), 16))::bit(64)::bigint
+                             AS question_hash
+                  FROM questions
+                  WHERE question_hash IS NULL) t
+            ORDER BY question_hash, id
+        ) h
+        WHERE h.id = q.id;
+
+        CREATE UNIQUE INDEX IF NOT EXISTS uk_questions_question_hash ON questions (question_hash);
+    END IF;
+END $$;
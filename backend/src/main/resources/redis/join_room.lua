@@ -0,0 +1,34 @@
+-- Reserves a seat in an open room, in one round trip: checks membership and
+-- the cap, adds the user to the room's member set and moves the room's fill
+-- level in the lobby sets (dropping it from them once full).
+-- Returns the new player count, 0 if the room is full, -1 if the user already
+-- has a seat, -2 if the room is not open (started, deleted or expired).
+-- KEYS: room lobby hash, room members set, global open set, topic open set
+-- ARGV: roomId, userId, ttlMs
+local max = tonumber(redis.call('HGET', KEYS[1], 'maxPlayers') or 0)
+if max == 0 then
+    return -2
+end
+if redis.call('SISMEMBER', KEYS[2], ARGV[2]) == 1 then
+    return -1
+end
+
+local players = redis.call('SCARD', KEYS[2])
+if players >= max then
+    return 0
+end
+
+redis.call('SADD', KEYS[2], ARGV[2])
+players = players + 1
+if players >= max then
+    redis.call('ZREM', KEYS[3], ARGV[1])
+    redis.call('ZREM', KEYS[4], ARGV[1])
+else
+    redis.call('ZADD', KEYS[3], players / max, ARGV[1])
+    redis.call('ZADD', KEYS[4], players / max, ARGV[1])
+end
+
+redis.call('HSET', KEYS[1], 'players', players)
+redis.call('PEXPIRE', KEYS[1], ARGV[3])
+redis.call('PEXPIRE', KEYS[2], ARGV[3])
+return players
@@ -0,0 +1,27 @@
+-- Gives up a seat in an open room and moves the room's fill level in the
+-- lobby sets, in one round trip. A room that had been full is listed again.
+-- Returns the new player count, -1 if the user had no seat, -2 if the room
+-- is not open.
+-- KEYS: room lobby hash, room members set, global open set, topic open set
+-- ARGV: roomId, userId, ttlMs
+local max = tonumber(redis.call('HGET', KEYS[1], 'maxPlayers') or 0)
+if max == 0 then
+    return -2
+end
+if redis.call('SREM', KEYS[2], ARGV[2]) == 0 then
+    return -1
+end
+
+local players = redis.call('SCARD', KEYS[2])
+if players <= 0 then
+    redis.call('ZREM', KEYS[3], ARGV[1])
+    redis.call('ZREM', KEYS[4], ARGV[1])
+else
+    redis.call('ZADD', KEYS[3], players / max, ARGV[1])
+    redis.call('ZADD', KEYS[4], players / max, ARGV[1])
+end
+
+redis.call('HSET', KEYS[1], 'players', players)
+redis.call('PEXPIRE', KEYS[1], ARGV[3])
+redis.call('PEXPIRE', KEYS[2], ARGV[3])
+return players
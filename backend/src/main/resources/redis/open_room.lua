@@ -0,0 +1,27 @@
+-- Indexes a new room for the lobby, in one round trip: its details and seat
+-- cap in the lobby hash, its players in the member set and its fill level
+-- in the global and topic sets. With onlyIfAbsent set, a room that is
+-- already indexed is left alone, so concurrent reindexes cannot wipe the
+-- seats taken in between.
+-- KEYS: room lobby hash, room members set, global open set, topic open set
+-- ARGV: roomId, ttlMs, maxPlayers, code, hostId, name, topic, onlyIfAbsent, userId...
+local max = tonumber(ARGV[3])
+if ARGV[8] == '1' and redis.call('EXISTS', KEYS[1]) == 1 then
+    return -1
+end
+redis.call('DEL', KEYS[1], KEYS[2])
+redis.call('HSET', KEYS[1], 'maxPlayers', max, 'code', ARGV[4], 'hostId', ARGV[5], 'name', ARGV[6], 'topic', ARGV[7])
+for i = 9, #ARGV do
+    redis.call('SADD', KEYS[2], ARGV[i])
+end
+
+local players = redis.call('SCARD', KEYS[2])
+if players > 0 and players < max then
+    redis.call('ZADD', KEYS[3], players / max, ARGV[1])
+    redis.call('ZADD', KEYS[4], players / max, ARGV[1])
+end
+
+redis.call('HSET', KEYS[1], 'players', players)
+redis.call('PEXPIRE', KEYS[1], ARGV[2])
+redis.call('PEXPIRE', KEYS[2], ARGV[2])
+return players
@@ -0,0 +1,26 @@
+-- Applies one roster change in place and bumps the roster version, in one
+-- round trip. Returns the new version, or 0 if the room has no cached roster
+-- (the caller reseeds it from the database).
+-- KEYS: roster hash, version counter
+-- ARGV: ttlMs, op ('set' or 'del'), field, value, versionTtlMs
+if redis.call('EXISTS', KEYS[1]) == 0 then
+    return 0
+end
+
+if ARGV[2] == 'del' then
+    redis.call('HDEL', KEYS[1], ARGV[3])
+else
+    redis.call('HSET', KEYS[1], ARGV[3], ARGV[4])
+end
+
+-- Rosters cached before the counter existed carry their version in the hash
+local version = redis.call('INCR', KEYS[2])
+local cached = tonumber(redis.call('HGET', KEYS[1], 'version') or '0')
+if version <= cached then
+    version = cached + 1
+    redis.call('SET', KEYS[2], version)
+end
+redis.call('HSET', KEYS[1], 'version', version)
+redis.call('PEXPIRE', KEYS[1], ARGV[1])
+redis.call('PEXPIRE', KEYS[2], ARGV[5])
+return version
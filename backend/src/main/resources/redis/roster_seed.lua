@@ -0,0 +1,21 @@
+-- Replaces a room's cached roster with a full copy from the database. The
+-- version comes from a counter that outlives the roster hash, so it keeps
+-- counting up even after the roster expired and clients holding an older
+-- copy see a gap and resync. Returns the new version.
+-- KEYS: roster hash, version counter
+-- ARGV: ttlMs, versionTtlMs, then field/value pairs
+local version = redis.call('INCR', KEYS[2])
+local cached = tonumber(redis.call('HGET', KEYS[1], 'version') or '0')
+if version <= cached then
+    version = cached + 1
+    redis.call('SET', KEYS[2], version)
+end
+redis.call('PEXPIRE', KEYS[2], ARGV[2])
+
+redis.call('DEL', KEYS[1])
+redis.call('HSET', KEYS[1], 'version', version)
+for i = 3, #ARGV, 2 do
+    redis.call('HSET', KEYS[1], ARGV[i], ARGV[i + 1])
+end
+redis.call('PEXPIRE', KEYS[1], ARGV[1])
+return version
@@ -0,0 +1,28 @@
+-- Opens a round on the room hash: active question, start time (Redis server
+-- clock), deadline, answer counters and round number, in one round trip.
+-- Returns the new round, or -1 if a newer room owner has already written
+-- (its fencing token is higher than ours). The leaderboard and player
+-- profiles get their TTL pushed out with the room, so a long game cannot
+-- outlive them.
+-- KEYS: room hash, leaderboard zset, players hash
+-- ARGV: multiplayerQuestionId, totalPlayers, questionTtlMs, roomTtlMs, fencingToken, leaderboardTtlMs
+local fence = tonumber(ARGV[5])
+if fence < tonumber(redis.call('HGET', KEYS[1], 'fence') or 0) then
+    return -1
+end
+
+local t = redis.call('TIME')
+local now = t[1] * 1000 + math.floor(t[2] / 1000)
+
+local round = redis.call('HINCRBY', KEYS[1], 'round', 1)
+redis.call('HSET', KEYS[1],
+        'activeQuestion', ARGV[1],
+        'questionStart', now,
+        'questionDeadline', now + tonumber(ARGV[3]),
+        'answered', 0,
+        'totalPlayers', ARGV[2],
+        'fence', fence)
+redis.call('PEXPIRE', KEYS[1], ARGV[4])
+redis.call('PEXPIRE', KEYS[2], ARGV[6])
+redis.call('PEXPIRE', KEYS[3], ARGV[6])
+return round
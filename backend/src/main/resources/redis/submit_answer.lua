@@ -0,0 +1,49 @@
+-- Accepts one answer for the active question, in one round trip.
+-- Returns {outcome, elapsedMs, answered, totalPlayers, rank, score, streak,
+-- best, correct, answers, answerTimeSumMs} where outcome is 1 = accepted,
+-- 0 = question not active, -1 = player already answered. Answers are stored
+-- as answer:<multiplayerQuestionId>:<userId>, so the dedupe needs no
+-- per-round reset. A correct answer adds its points to the room leaderboard
+-- and extends the player's streak; every answer updates the player's totals.
+-- KEYS: room hash, leaderboard zset, players hash
+-- ARGV: multiplayerQuestionId, userId, selectedOption, correct (1/0),
+--       maxPoints, penaltyPerSecond
+local state = redis.call('HMGET', KEYS[1], 'activeQuestion', 'questionStart', 'questionDeadline', 'totalPlayers')
+local t = redis.call('TIME')
+local now = t[1] * 1000 + math.floor(t[2] / 1000)
+
+if not state[1] or state[1] ~= ARGV[1] or now > tonumber(state[3] or 0) then
+    return {0}
+end
+
+if redis.call('HSETNX', KEYS[1], 'answer:' .. ARGV[1] .. ':' .. ARGV[2], ARGV[3]) == 0 then
+    return {-1}
+end
+
+local answered = redis.call('HINCRBY', KEYS[1], 'answered', 1)
+local elapsed = now - tonumber(state[2])
+
+local u = ARGV[2]
+local score, streak, correct
+if ARGV[4] == '1' then
+    local points = tonumber(ARGV[5]) - math.floor(elapsed / 1000) * tonumber(ARGV[6])
+    score = tonumber(redis.call('ZINCRBY', KEYS[2], points, u))
+    streak = redis.call('HINCRBY', KEYS[3], 'streak:' .. u, 1)
+    correct = redis.call('HINCRBY', KEYS[3], 'correct:' .. u, 1)
+else
+    score = tonumber(redis.call('ZSCORE', KEYS[2], u) or 0)
+    streak = 0
+    redis.call('HSET', KEYS[3], 'streak:' .. u, 0)
+    correct = tonumber(redis.call('HGET', KEYS[3], 'correct:' .. u) or 0)
+end
+
+local best = tonumber(redis.call('HGET', KEYS[3], 'best:' .. u) or 0)
+if streak > best then
+    best = streak
+    redis.call('HSET', KEYS[3], 'best:' .. u, best)
+end
+local answers = redis.call('HINCRBY', KEYS[3], 'answers:' .. u, 1)
+local timeSum = redis.call('HINCRBY', KEYS[3], 'time:' .. u, elapsed)
+
+local rank = redis.call('ZREVRANK', KEYS[2], u) or 0
+return {1, elapsed, answered, tonumber(state[4] or 0), rank + 1, score, streak, best, correct, answers, timeSum}
@@ -0,0 +1,154 @@
+package com.pokeverse.play.quiz.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.MimeTypeUtils;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Several {@link BrokerBridge} nodes in one JVM sharing the in-process
+ * transport. Each node's local broker is a queue of delivered messages.
+ * Run the latency part with {@code BENCHMARK=true ./gradlew test --tests '*BrokerBridgeFanOutTests'}.
+ */
+class BrokerBridgeFanOutTests {
+
+    private final LocalBrokerBridgeTransport transport = new LocalBrokerBridgeTransport();
+
+    private record Node(BrokerBridge bridge, ConcurrentLinkedQueue<Message<byte[]>> delivered) {}
+
+    @AfterEach
+    void shutdown() {
+        transport.shutdown();
+    }
+
+    private Node node(String id) {
+        ConcurrentLinkedQueue<Message<byte[]>> delivered = new ConcurrentLinkedQueue<>();
+        return new Node(new BrokerBridge(id, transport, delivered::add), delivered);
+    }
+
+    private static Message<byte[]> message(String destination, byte[] payload) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setDestination(destination);
+        accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        return MessageBuilder.createMessage(payload, accessor.getMessageHeaders());
+    }
+
+    private static void await(CountDownLatch latch) throws InterruptedException {
+        assertTrue(latch.await(5, TimeUnit.SECONDS), "bridged messages did not arrive");
+    }
+
+    @Test
+    void deliversOnlyToNodesWithSubscribersOfTheRoom() throws Exception {
+        Node sender = node("a");
+        Node listener = node("b");
+        Node otherRoom = node("c");
+        sender.bridge().subscribed("s1", "sub-1", "/topic/room/1/question");
+        listener.bridge().subscribed("s2", "sub-1", "/topic/room/1/question");
+        listener.bridge().subscribed("s2", "sub-2", "/topic/room/1/roster");
+        otherRoom.bridge().subscribed("s3", "sub-1", "/topic/room/2/question");
+
+        byte[] json = "{\"round\":1}".getBytes(StandardCharsets.UTF_8);
+        Message<byte[]> sent = message("/topic/room/1/question", json);
+        assertSame(sent, sender.bridge().preSend(sent, null));
+
+        // Published after the message, so its arrival means the first one was handled
+        Message<byte[]> marker = message("/topic/room/2/question", new byte[0]);
+        CountDownLatch done = new CountDownLatch(1);
+        transport.subscribe("quiz:ws:room:2", bytes -> done.countDown());
+        sender.bridge().preSend(marker, null);
+        await(done);
+
+        assertTrue(sender.delivered().isEmpty(), "a node must not receive its own messages back");
+        assertEquals(1, listener.delivered().size());
+        Message<byte[]> received = listener.delivered().peek();
+        assertArrayEquals(json, received.getPayload());
+        assertEquals("/topic/room/1/question", SimpMessageHeaderAccessor.getDestination(received.getHeaders()));
+        assertEquals(MimeTypeUtils.APPLICATION_JSON, received.getHeaders().get(MessageHeaders.CONTENT_TYPE));
+        assertEquals("a", received.getHeaders().get(BrokerBridge.BRIDGED_HEADER));
+        assertEquals(1, otherRoom.delivered().size()); // only the marker
+
+        // Re-delivered messages pass the interceptor without being published again
+        assertSame(received, listener.bridge().preSend(received, null));
+    }
+
+    @Test
+    void dropsTheChannelWithTheLastLocalSubscriber() {
+        Node node = node("a");
+        node.bridge().subscribed("s1", "sub-1", "/topic/room/7/question");
+        node.bridge().subscribed("s1", "sub-2", "/topic/room/7/roster");
+        node.bridge().subscribed("s2", "sub-1", "/topic/player/3/error");
+
+        node.bridge().unsubscribed("s1", "sub-1");
+        assertTrue(node.bridge().listensTo("quiz:ws:room:7"));
+        node.bridge().disconnected("s1");
+        assertFalse(node.bridge().listensTo("quiz:ws:room:7"));
+        assertTrue(node.bridge().listensTo("quiz:ws:player:3"));
+        node.bridge().disconnected("s2");
+        assertFalse(node.bridge().listensTo("quiz:ws:player:3"));
+    }
+
+    @Test
+    void mapsDestinationsToChannels() {
+        assertEquals("quiz:ws:room:42", BrokerBridge.channelFor("/topic/room/42/question"));
+        assertEquals("quiz:ws:room:42", BrokerBridge.channelFor("/topic/room/42"));
+        assertEquals("quiz:ws:player:7", BrokerBridge.channelFor("/topic/player/7/error"));
+        assertNull(BrokerBridge.channelFor("/topic/lobby"));
+        assertNull(BrokerBridge.channelFor("/queue/room/42"));
+    }
+
+    @Test
+    @EnabledIfEnvironmentVariable(named = "BENCHMARK", matches = "true")
+    void fanOutLatency() throws Exception {
+        for (int nodes : new int[]{2, 4, 8}) {
+            List<BrokerBridge> cluster = new ArrayList<>();
+            AtomicReference<CountDownLatch> arrived = new AtomicReference<>();
+            long[] sentAt = new long[1];
+            long[] slowest = new long[1];
+            for (int i = 0; i < nodes; i++) {
+                BrokerBridge bridge = new BrokerBridge("node-" + i, transport, m -> {
+                    slowest[0] = Math.max(slowest[0], System.nanoTime() - sentAt[0]);
+                    arrived.get().countDown();
+                });
+                bridge.subscribed("s" + i, "sub", "/topic/room/" + nodes + "/question");
+                cluster.add(bridge);
+            }
+
+            int messages = 20_000;
+            long[] latencies = new long[messages];
+            byte[] payload = new byte[256];
+            BrokerBridge sender = cluster.get(0);
+            for (int i = -messages / 4; i < messages; i++) { // first quarter warms up
+                ByteBuffer.wrap(payload).putInt(i);
+                CountDownLatch latch = new CountDownLatch(nodes - 1);
+                arrived.set(latch);
+                slowest[0] = 0;
+                sentAt[0] = System.nanoTime();
+                sender.preSend(message("/topic/room/" + nodes + "/question", payload), null);
+                await(latch);
+                if (i >= 0) latencies[i] = slowest[0];
+            }
+
+            Arrays.sort(latencies);
+            System.out.printf("nodes=%d fan-out to all remote nodes: p50=%.1f us, p99=%.1f us, max=%.1f us%n",
+                    nodes, latencies[messages / 2] / 1e3, latencies[messages * 99 / 100] / 1e3,
+                    latencies[messages - 1] / 1e3);
+        }
+    }
+}
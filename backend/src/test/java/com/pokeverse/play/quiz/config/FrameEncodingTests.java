@@ -0,0 +1,137 @@
+package com.pokeverse.play.quiz.config;
+
+import com.pokeverse.play.quiz.utils.EncodedFrame;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.MimeTypeUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FrameEncodingTests {
+
+    private static final byte[] JSON = "{\"round\":3,\"top\":[[7,250]]}".getBytes(StandardCharsets.UTF_8);
+
+    private FrameEncoding encoding;
+    private ChannelInterceptor inbound;
+    private ChannelInterceptor outbound;
+
+    @BeforeEach
+    void setUp() {
+        encoding = new FrameEncoding(new SimpleMeterRegistry());
+        encoding.init();
+        inbound = encoding.inbound();
+        outbound = encoding.outbound();
+    }
+
+    private static Message<byte[]> connect(String sessionId, boolean rawWebSocket, String frameEncoding) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.CONNECT);
+        accessor.setSessionId(sessionId);
+        Map<String, Object> attributes = new HashMap<>();
+        if (rawWebSocket) attributes.put(FrameEncoding.BINARY_CAPABLE, Boolean.TRUE);
+        accessor.setSessionAttributes(attributes);
+        if (frameEncoding != null) accessor.setNativeHeader(FrameEncoding.ENCODING_HEADER, frameEncoding);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+
+    private static Message<byte[]> disconnect(String sessionId) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.DISCONNECT);
+        accessor.setSessionId(sessionId);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+
+    // What the simple broker hands to the outbound channel for one subscriber
+    private static Message<byte[]> delivery(String sessionId, EncodedFrame frame) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setSessionId(sessionId);
+        accessor.setSubscriptionId("sub-0");
+        accessor.setDestination("/topic/room/1/game/standings");
+        accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        accessor.setHeader(EncodedFrame.HEADER, frame);
+        accessor.setLeaveMutable(true);
+        return MessageBuilder.createMessage(frame.json(), accessor.getMessageHeaders());
+    }
+
+    @Test
+    void rawWebSocketSessionThatAsksForCborGetsBinaryFrames() {
+        inbound.preSend(connect("s1", true, "cbor"), null);
+        EncodedFrame frame = new EncodedFrame(JSON);
+
+        Message<?> sent = outbound.preSend(delivery("s1", frame), null);
+
+        assertArrayEquals(frame.cbor(), (byte[]) sent.getPayload());
+        assertEquals(MimeTypeUtils.APPLICATION_OCTET_STREAM, sent.getHeaders().get(MessageHeaders.CONTENT_TYPE));
+    }
+
+    @Test
+    void sockJsSessionKeepsJsonEvenWhenAskingForCbor() {
+        inbound.preSend(connect("s1", false, "cbor"), null);
+        EncodedFrame frame = new EncodedFrame(JSON);
+        Message<byte[]> delivery = delivery("s1", frame);
+
+        assertSame(delivery, outbound.preSend(delivery, null));
+        assertFalse(frame.hasCbor(), "no CBOR session, nothing to transcode");
+    }
+
+    @Test
+    void sessionsDefaultToJson() {
+        inbound.preSend(connect("s1", true, null), null);
+        Message<byte[]> delivery = delivery("s1", new EncodedFrame(JSON));
+
+        assertSame(delivery, outbound.preSend(delivery, null));
+        Message<byte[]> unknown = delivery("s9", new EncodedFrame(JSON));
+        assertSame(unknown, outbound.preSend(unknown, null));
+    }
+
+    @Test
+    void disconnectForgetsTheNegotiatedEncoding() {
+        inbound.preSend(connect("s1", true, "cbor"), null);
+        inbound.preSend(disconnect("s1"), null);
+        Message<byte[]> delivery = delivery("s1", new EncodedFrame(JSON));
+
+        assertSame(delivery, outbound.preSend(delivery, null));
+    }
+
+    @Test
+    void cborIsTranscodedOncePerFrame() {
+        inbound.preSend(connect("s1", true, "cbor"), null);
+        inbound.preSend(connect("s2", true, "cbor"), null);
+        EncodedFrame frame = new EncodedFrame(JSON);
+
+        Object first = outbound.preSend(delivery("s1", frame), null).getPayload();
+        Object second = outbound.preSend(delivery("s2", frame), null).getPayload();
+
+        assertSame(first, second);
+    }
+
+    @Test
+    void brokerAttachesFramesToJsonMessagesOnly() {
+        ChannelInterceptor broker = encoding.broker();
+
+        SimpMessageHeaderAccessor json = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        json.setDestination("/topic/room/1/game/answer");
+        json.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        Message<?> attached = broker.preSend(MessageBuilder.createMessage(JSON, json.getMessageHeaders()), null);
+        EncodedFrame frame = (EncodedFrame) attached.getHeaders().get(EncodedFrame.HEADER);
+        assertNotNull(frame);
+        assertArrayEquals(JSON, frame.json());
+
+        SimpMessageHeaderAccessor text = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        text.setDestination("/topic/room/1/chat");
+        text.setContentType(MimeTypeUtils.TEXT_PLAIN);
+        Message<byte[]> plain = MessageBuilder.createMessage(JSON, text.getMessageHeaders());
+        assertSame(plain, broker.preSend(plain, null));
+    }
+}
@@ -0,0 +1,53 @@
+package com.pokeverse.play.quiz.service;
+
+import com.pokeverse.play.quiz.dto.BankQuestionDto;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Draw latency of the in-memory question bank at 10k, 100k and 1M questions.
+ * Run with {@code BENCHMARK=true ./gradlew test --tests '*QuestionBankBenchmarkTests'}.
+ */
+@EnabledIfEnvironmentVariable(named = "BENCHMARK", matches = "true")
+class QuestionBankBenchmarkTests {
+
+    private static final String[] TOPICS = {"Pokedex", "Moves", "Types", "Abilities"};
+    private static final String[] DIFFICULTIES = {"easy", "medium", "hard"};
+    private static final List<String> OPTIONS = List.of("Pikachu", "Eevee", "Mew", "Snorlax");
+    private static final int DRAWS = 100_000;
+
+    @Test
+    void drawLatency() {
+        for (int size : new int[]{10_000, 100_000, 1_000_000}) {
+            QuestionBank bank = new QuestionBank(null, null);
+            for (long id = 1; id <= size; id++) {
+                bank.put(new BankQuestionDto(
+                        id, "Question " + id, OPTIONS, "Mew",
+                        DIFFICULTIES[(int) (id % DIFFICULTIES.length)],
+                        TOPICS[(int) (id % TOPICS.length)]
+                ));
+            }
+
+            // warm-up
+            for (int i = 0; i < DRAWS; i++) bank.draw("Moves", null);
+
+            long started = System.nanoTime();
+            for (int i = 0; i < DRAWS; i++) bank.draw("Moves", null);
+            double singleNs = (System.nanoTime() - started) / (double) DRAWS;
+
+            started = System.nanoTime();
+            List<BankQuestionDto> deck = List.of();
+            for (int i = 0; i < DRAWS / 100; i++) deck = bank.draw(null, "hard", 100);
+            double deckNs = (System.nanoTime() - started) / (double) (DRAWS / 100);
+
+            assertEquals(100, new HashSet<>(deck).size());
+            System.out.printf("questions=%,d single draw=%.0f ns, 100-question draw=%.0f ns%n",
+                    size, singleNs, deckNs);
+        }
+    }
+}
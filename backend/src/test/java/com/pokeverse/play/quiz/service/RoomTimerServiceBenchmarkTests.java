@@ -0,0 +1,73 @@
+package com.pokeverse.play.quiz.service;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Lateness of room deadlines with 100k rooms pending at once, half of them
+ * rescheduled before they fire the way a round is cut short.
+ * Run with {@code BENCHMARK=true ./gradlew test --tests '*RoomTimerServiceBenchmarkTests'}.
+ */
+@EnabledIfEnvironmentVariable(named = "BENCHMARK", matches = "true")
+class RoomTimerServiceBenchmarkTests {
+
+    private static final int ROOMS = 100_000;
+    private static final long MAX_DELAY_MS = 10_000;
+
+    @Test
+    void deadlineDrift() throws InterruptedException {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        RoomTimerService timers = new RoomTimerService(registry);
+        timers.start();
+
+        long[] lateNanos = new long[ROOMS];
+        CountDownLatch fired = new CountDownLatch(ROOMS);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        long started = System.nanoTime();
+        for (int room = 0; room < ROOMS; room++) {
+            schedule(timers, room, random.nextLong(1_000, MAX_DELAY_MS), lateNanos, fired);
+        }
+        double scheduleNs = (System.nanoTime() - started) / (double) ROOMS;
+
+        // Every other room finishes its round early
+        Thread.sleep(500);
+        for (int room = 0; room < ROOMS; room += 2) {
+            schedule(timers, room, random.nextLong(100, MAX_DELAY_MS / 2), lateNanos, fired);
+        }
+
+        assertTrue(fired.await(MAX_DELAY_MS * 2, TimeUnit.MILLISECONDS), "not every deadline fired");
+        timers.stop();
+
+        Arrays.sort(lateNanos);
+        assertTrue(lateNanos[0] >= 0, "a deadline fired early");
+        Timer drift = registry.get("quiz.room.timer.drift").timer();
+        System.out.printf(
+                "rooms=%,d schedule=%.0f ns/op, lateness p50=%.1f ms p99=%.1f ms max=%.1f ms, tick drift mean=%.2f ms max=%.2f ms%n",
+                ROOMS, scheduleNs,
+                millis(lateNanos[ROOMS / 2]), millis(lateNanos[(int) (ROOMS * 0.99)]), millis(lateNanos[ROOMS - 1]),
+                drift.mean(TimeUnit.MILLISECONDS), drift.max(TimeUnit.MILLISECONDS));
+    }
+
+    private static void schedule(RoomTimerService timers, int room, long delayMs, long[] lateNanos, CountDownLatch fired) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMs);
+        timers.schedule((long) room, Duration.ofMillis(delayMs), () -> {
+            lateNanos[room] = System.nanoTime() - deadline;
+            fired.countDown();
+        });
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
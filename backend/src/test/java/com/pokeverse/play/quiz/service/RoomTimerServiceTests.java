@@ -0,0 +1,109 @@
+package com.pokeverse.play.quiz.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoomTimerServiceTests {
+
+    private static final Duration ROTATION = Duration.ofMillis(RoomTimerService.TICK_MS * RoomTimerService.WHEEL_SIZE);
+
+    private SimpleMeterRegistry registry;
+    private RoomTimerService timers;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        timers = new RoomTimerService(registry);
+        timers.start();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        timers.stop();
+    }
+
+    private double scheduled() {
+        return registry.get("quiz.room.timer.scheduled").gauge().value();
+    }
+
+    // Requests are applied at the start of the next tick
+    private void awaitTicks(int ticks) throws InterruptedException {
+        Thread.sleep(RoomTimerService.TICK_MS * ticks);
+    }
+
+    @Test
+    void firesNoEarlierThanTheDeadline() throws InterruptedException {
+        CountDownLatch fired = new CountDownLatch(1);
+        AtomicLong firedAt = new AtomicLong();
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(200);
+        timers.schedule(1L, Duration.ofMillis(200), () -> {
+            firedAt.set(System.nanoTime());
+            fired.countDown();
+        });
+
+        assertTrue(fired.await(2, TimeUnit.SECONDS));
+        assertTrue(firedAt.get() >= deadline, "fired before its deadline");
+        awaitTicks(2);
+        assertEquals(0, scheduled());
+    }
+
+    @Test
+    void schedulingAgainReplacesThePendingDeadline() throws InterruptedException {
+        AtomicInteger first = new AtomicInteger();
+        CountDownLatch second = new CountDownLatch(1);
+
+        timers.schedule(1L, Duration.ofMillis(500), first::incrementAndGet);
+        timers.schedule(1L, Duration.ofMillis(100), second::countDown);
+
+        assertTrue(second.await(2, TimeUnit.SECONDS));
+        Thread.sleep(700);
+        assertEquals(0, first.get(), "replaced deadline still fired");
+        assertEquals(0, scheduled());
+    }
+
+    @Test
+    void cancelledDeadlineNeverFires() throws InterruptedException {
+        AtomicInteger cancelled = new AtomicInteger();
+        CountDownLatch other = new CountDownLatch(1);
+
+        timers.schedule(1L, Duration.ofMillis(200), cancelled::incrementAndGet);
+        timers.schedule(2L, Duration.ofMillis(400), other::countDown);
+        timers.cancel(1L);
+
+        assertTrue(other.await(2, TimeUnit.SECONDS));
+        assertEquals(0, cancelled.get(), "cancelled deadline fired");
+        assertEquals(0, scheduled());
+    }
+
+    @Test
+    void deadlinesBeyondOneRotationSurviveEarlierPassesOfTheirBucket() throws InterruptedException {
+        // One and two rotations out, plus a few ticks: the bucket comes round within the
+        // first 200 ms, and the timeout has to count down its rounds instead of firing
+        AtomicInteger early = new AtomicInteger();
+        timers.schedule(1L, ROTATION.plusMillis(100), early::incrementAndGet);
+        timers.schedule(2L, ROTATION.multipliedBy(2).plusMillis(100), early::incrementAndGet);
+
+        CountDownLatch pastBuckets = new CountDownLatch(1);
+        timers.schedule(3L, Duration.ofMillis(400), pastBuckets::countDown);
+
+        assertTrue(pastBuckets.await(2, TimeUnit.SECONDS));
+        assertEquals(0, early.get(), "multi-rotation deadline fired on its bucket's first pass");
+        assertEquals(2, scheduled());
+
+        timers.cancel(1L);
+        timers.cancel(2L);
+        awaitTicks(2);
+        assertEquals(0, scheduled());
+    }
+}
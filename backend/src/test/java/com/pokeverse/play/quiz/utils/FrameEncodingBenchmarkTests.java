@@ -0,0 +1,85 @@
+package com.pokeverse.play.quiz.utils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.pokeverse.play.quiz.dto.AnswerBatchDto;
+import com.pokeverse.play.quiz.dto.BankQuestionDto;
+import com.pokeverse.play.quiz.dto.LeaderBoardDto;
+import com.pokeverse.play.quiz.dto.MultiplayerPlayersInRoomDto;
+import com.pokeverse.play.quiz.dto.RoomQuestionDto;
+import com.pokeverse.play.quiz.dto.RosterEventDto;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Bytes per frame and encode time of the game frames as JSON and as CBOR,
+ * both serialized directly and transcoded from JSON the way
+ * {@link EncodedFrame} does.
+ * Run with {@code BENCHMARK=true ./gradlew test --tests '*FrameEncodingBenchmarkTests'}.
+ */
+@EnabledIfEnvironmentVariable(named = "BENCHMARK", matches = "true")
+class FrameEncodingBenchmarkTests {
+
+    private static final int ITERATIONS = 200_000;
+
+    private final ObjectMapper json = new ObjectMapper();
+    private final CBORMapper cbor = new CBORMapper();
+
+    @Test
+    void bytesAndEncodeTime() throws Exception {
+        Map<String, Object> frames = new LinkedHashMap<>();
+        frames.put("question", RoomQuestionDto.of(4182L, new BankQuestionDto(
+                77L, "Which Pokemon evolves from Eevee when exposed to a Thunder Stone?",
+                List.of("Jolteon", "Flareon", "Vaporeon", "Espeon"), "Jolteon", "medium", "Pokedex"
+        ), 3, 10));
+
+        List<AnswerBatchDto.Answer> answers = new ArrayList<>();
+        for (int i = 0; i < 8; i++) answers.add(new AnswerBatchDto.Answer(9000L + i, i % 3 != 0, 240 + i * 37, i + 1));
+        frames.put("answer batch (8)", new AnswerBatchDto(3, answers));
+
+        List<long[]> top = new ArrayList<>();
+        for (int i = 0; i < 10; i++) top.add(new long[]{1200L + i, 2500 - i * 110});
+        frames.put("standings", Map.of("round", 3, "top", top));
+
+        frames.put("roster", RosterEventDto.playerJoined(12,
+                new MultiplayerPlayersInRoomDto(9007, 1207, "Misty", "avatars/misty.png", 0)));
+
+        List<LeaderBoardDto> leaderboard = new ArrayList<>();
+        for (int i = 0; i < 8; i++) leaderboard.add(new LeaderBoardDto(i + 1, 1200L + i, "Trainer " + i, 2500 - i * 110));
+        frames.put("end", Map.of("leaderboard", leaderboard));
+
+        System.out.printf("%-18s %6s %6s %10s %10s %12s%n",
+                "frame", "json B", "cbor B", "json ns", "cbor ns", "transcode ns");
+        for (Map.Entry<String, Object> frame : frames.entrySet()) {
+            Object dto = frame.getValue();
+            byte[] jsonBytes = json.writeValueAsBytes(dto);
+            byte[] cborBytes = EncodedFrame.toCbor(jsonBytes);
+            assertEquals(json.readTree(jsonBytes), cbor.readTree(cborBytes));
+
+            double jsonNs = time(() -> json.writeValueAsBytes(dto));
+            double cborNs = time(() -> cbor.writeValueAsBytes(dto));
+            double transcodeNs = time(() -> EncodedFrame.toCbor(jsonBytes));
+
+            System.out.printf("%-18s %6d %6d %10.0f %10.0f %12.0f%n", frame.getKey(),
+                    jsonBytes.length, cborBytes.length, jsonNs, cborNs, transcodeNs);
+        }
+    }
+
+    private interface Encoder {
+        Object encode() throws Exception;
+    }
+
+    private static double time(Encoder encoder) throws Exception {
+        for (int i = 0; i < ITERATIONS; i++) encoder.encode(); // warm-up
+        long started = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) encoder.encode();
+        return (System.nanoTime() - started) / (double) ITERATIONS;
+    }
+}
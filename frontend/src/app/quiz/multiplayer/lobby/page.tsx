@@ -6,12 +6,13 @@ import { Copy, Check, Crown, Users, Target, Share } from "lucide-react";
 import { toast } from "sonner";
 import Chat from "@/components/quiz/multiPlayerQuestion/Chat";
 import { useMultiplayerRoomStore } from "@/store/useMultiplayerRoomStore";
-import { MultiplayerPlayersInRoomDto } from "@/components/utils/types";
+import { MultiplayerPlayersInRoomDto, RosterEventDto } from "@/components/utils/types";
 import { Avatar, AvatarFallback } from "@/components/ui/avatar";
 import { useAuthStore } from "@/store/useAuthStore";
 import { useRouter } from "next/navigation";
 import { useWebSocket } from "@/components/utils/websocketprovider";
 import Image from "next/image";
+import api from "@/lib/axios";
 
 export default function Lobby() {
     const router = useRouter();
@@ -42,20 +43,47 @@ export default function Lobby() {
     useEffect(() => {
         if (!room || !connected) return;
 
-        const roomUpdates = `/topic/room/${room.id}/quiz`;
+        const rosterUpdates = `/topic/room/${room.id}/roster`;
         const gameInfo = `/topic/room/${room.id}/game/info`;
         const errorTopic = `/topic/player/${userId}/error`;
 
         console.log("🔔 Subscribing to lobby topics");
 
-        // --- 1) Room Updates (players in room) ---
-        const unsubRoom = subscribe(roomUpdates, (message) => {
+        // --- 1) Roster deltas (players in room) ---
+        const resync = async () => {
             try {
-                const updatedRoom = JSON.parse(message.body);
-                setPlayers(updatedRoom.players || []);
-                useMultiplayerRoomStore.getState().setRoom(updatedRoom);
+                const res = await api.get(`/v1/api/quiz/multiplayer/room/get/${room.code}`);
+                useMultiplayerRoomStore.getState().setRoom(res.data);
             } catch (err) {
-                console.error("❌ Failed to parse room update:", err);
+                console.error("❌ Failed to resync room:", err);
+            }
+        };
+
+        const unsubRoom = subscribe(rosterUpdates, (message) => {
+            try {
+                const event: RosterEventDto = JSON.parse(message.body);
+                const current = useMultiplayerRoomStore.getState().room;
+                if (!current) return;
+
+                const known = current.version ?? 0;
+                if (event.version <= known) return; // already in our snapshot
+                if (event.version !== known + 1) {
+                    resync(); // missed a change
+                    return;
+                }
+
+                let players = current.players;
+                let hostId = current.hostId;
+                if (event.type === "player-joined") {
+                    players = [...players.filter((p) => p.userId !== event.player.userId), event.player];
+                } else if (event.type === "player-left") {
+                    players = players.filter((p) => p.userId !== event.userId);
+                } else if (event.type === "host-changed") {
+                    hostId = event.hostId;
+                }
+                useMultiplayerRoomStore.getState().setRoom({ ...current, players, hostId, version: event.version });
+            } catch (err) {
+                console.error("❌ Failed to parse roster update:", err);
             }
         });
 
@@ -20,21 +20,21 @@ import { useMultiplayerRStore } from "@/store/useMultiplayerResult";
 import { Button } from "@/components/ui/button";
 
 const ResultLeaderboard = () => {
-    const { code } = useParams<{ code: string }>();
+    const { roomId } = useParams<{ roomId: string }>();
     const router = useRouter();
     const userId = useAuthStore((s) => s.getUser()?.id);
     const fetchResults = useMultiplayerRStore((s) => s.fetchResults);
 
-    const roomResult = useMultiplayerRStore((s) => s.resultsByRoom[code]);
+    const roomResult = useMultiplayerRStore((s) => s.resultsByRoom[roomId]);
 
-    const players = useMultiplayerRStore((s) => s.resultsByRoom[code]?.players);
+    const players = useMultiplayerRStore((s) => s.resultsByRoom[roomId]?.players);
 
     const currentUser = useMultiplayerRStore(
-        (s) => s.resultsByRoom[code]?.currentUser,
+        (s) => s.resultsByRoom[roomId]?.currentUser,
     );
 
     const userRank = useMultiplayerRStore(
-        (s) => s.resultsByRoom[code]?.userRank,
+        (s) => s.resultsByRoom[roomId]?.userRank,
     );
 
     const loading = useMultiplayerRStore((s) => s.loading);
@@ -67,12 +67,12 @@ const ResultLeaderboard = () => {
     }, [userRank]); // Empty dependency array means this runs once on mount
 
     useEffect(() => {
-        if (!code || !userId) return;
+        if (!roomId || !userId) return;
 
-        fetchResults(code, userId).catch(() => {
+        fetchResults(roomId, userId).catch(() => {
             toast.error("Failed to load leaderboard");
         });
-    }, [code, userId, fetchResults]);
+    }, [roomId, userId, fetchResults]);
 
     if (!roomResult) {
         return <div>No results found</div>;
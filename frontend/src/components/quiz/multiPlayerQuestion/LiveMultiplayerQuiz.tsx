@@ -36,6 +36,16 @@ interface RoomQuestion {
     timeLimit: number;
 }
 
+interface AnswerBatch {
+    round: number;
+    answers: {
+        playerId: number;
+        correct: boolean;
+        score: number;
+        rank: number;
+    }[];
+}
+
 const QuizState = {
     Initial: "Initial",
     LOADING: "LOADING",
@@ -95,14 +105,17 @@ export default function LiveMultiplayerQuiz() {
         // eslint-disable-next-line @typescript-eslint/no-explicit-any
         (message: any) => {
             try {
-                const data = JSON.parse(message.body);
+                // One frame carries every answer accepted since the last one
+                const batch: AnswerBatch = JSON.parse(message.body);
 
-                if (data.playerId === playerId) {
-                    setIsCorrect(data.isCorrect);
-                }
+                for (const answer of batch.answers) {
+                    if (answer.playerId === playerId) {
+                        setIsCorrect(answer.correct);
+                    }
 
-                if (data.isCorrect) {
-                    increasePlayerScore(data.playerId, data.score);
+                    if (answer.correct) {
+                        increasePlayerScore(answer.playerId, answer.score);
+                    }
                 }
             } catch (e) {
                 console.error("Failed to parse answer", e);
@@ -129,12 +142,28 @@ export default function LiveMultiplayerQuiz() {
 
                 setPlayers(leaderboard);
                 setGameState(QuizState.FINAL_RESULTS);
-                router.push(`/quiz/multiplayer/result/${room?.code}`);
+                router.push(`/quiz/multiplayer/result/${room?.id}`);
             } catch (e) {
                 console.error("Failed to parse end game", e);
             }
         },
-        [router, setPlayers, room?.code],
+        [router, setPlayers, room?.id],
+    );
+
+    const onInfo = useCallback(
+        // eslint-disable-next-line @typescript-eslint/no-explicit-any
+        (message: any) => {
+            try {
+                const data = JSON.parse(message.body);
+                if (data.message === "Game_Aborted") {
+                    toast.error("The game was stopped due to a server error");
+                    router.push("/quiz/multiplayer/join");
+                }
+            } catch (e) {
+                console.error("Failed to parse game info", e);
+            }
+        },
+        [router],
     );
 
     // ---------- WebSocket Subscriptions (CORRECT LIFECYCLE) ----------
@@ -150,13 +179,15 @@ export default function LiveMultiplayerQuiz() {
             onAnswer,
         );
         const unsubEnd = subscribe(`/topic/room/${room.id}/game/end`, onEnd);
+        const unsubInfo = subscribe(`/topic/room/${room.id}/game/info`, onInfo);
 
         return () => {
             unsubQuestion();
             unsubAnswer();
             unsubEnd();
+            unsubInfo();
         };
-    }, [room?.id, playerId, subscribe, onQuestion, onAnswer, onEnd]);
+    }, [room?.id, playerId, subscribe, onQuestion, onAnswer, onEnd, onInfo]);
 
     // ---------- Timer ----------
     const handleTimeout = useCallback(() => {
@@ -113,6 +113,12 @@ export interface MultiplayerRoomCreationDto {
     maxPlayers: number;
     status: Status;
     players: MultiplayerPlayersInRoomDto[];
+    version?: number;
 }
 
+export type RosterEventDto =
+    | { type: "player-joined"; version: number; player: MultiplayerPlayersInRoomDto }
+    | { type: "player-left"; version: number; userId: number }
+    | { type: "host-changed"; version: number; hostId: number };
+
 export type Status = "NOT_STARTED" | "IN_PROGRESS" | "COMPLETED"; // adjust as per backend enum
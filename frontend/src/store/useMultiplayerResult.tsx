@@ -15,7 +15,7 @@ interface MultiplayerResultState {
     roomOrder: string[];
     loading: boolean;
 
-    fetchResults: (roomCode: string, userId: number) => Promise<void>;
+    fetchResults: (roomId: string, userId: number) => Promise<void>;
     clearAll: () => void;
 }
 
@@ -27,12 +27,12 @@ export const useMultiplayerRStore = create<MultiplayerResultState>()(
             resultsByRoom: {},
             roomOrder: [],
             loading: false,
-            async fetchResults(roomCode, userId) {
+            async fetchResults(roomId, userId) {
                 const { resultsByRoom, roomOrder } = get();
-                if (resultsByRoom[roomCode]) return;
+                if (resultsByRoom[roomId]) return;
                 set({ loading: true });
                 const res = await api.get(
-                    `/v1/api/quiz/multiplayer/room/results/${roomCode}`
+                    `/v1/api/quiz/multiplayer/room/results/room/${roomId}`
                 );
                 const players: PlayerResult[] = res.data;
                 const index = players.findIndex((p) => p.id === userId);
@@ -43,8 +43,8 @@ export const useMultiplayerRStore = create<MultiplayerResultState>()(
                     fetchedAt: Date.now(),
                 };
 
-                const newResults = { ...resultsByRoom, [roomCode]: roomResult };
-                const newOrder = [...roomOrder, roomCode];
+                const newResults = { ...resultsByRoom, [roomId]: roomResult };
+                const newOrder = [...roomOrder, roomId];
 
                 // 🧹 EVICTION: keep only last 5 rooms
                 if (newOrder.length > MAX_ROOMS) {
@@ -68,7 +68,8 @@ export const useMultiplayerRStore = create<MultiplayerResultState>()(
             },
         }),
         {
-            name: "multiplayer-results-cache",
+            // Keyed by room id; the old cache was keyed by room codes, which get reused
+            name: "multiplayer-results-by-room",
         }
     )
 );